@@ -2,7 +2,6 @@ package org.example;
 
 import java.util.Arrays;
 import java.util.stream.IntStream;
-import org.apache.commons.math3.distribution.NormalDistribution;
 
 public class BlackScholesADE {
 
@@ -120,10 +119,9 @@ public class BlackScholesADE {
     }
 
     public static double bs_analytical(double S, double K, double T, double r, double sigma) {
-        NormalDistribution norm = new NormalDistribution();
         double d1 = (Math.log(S / K) + (r + sigma * sigma / 2) * T) / (sigma * Math.sqrt(T));
         double d2 = d1 - sigma * Math.sqrt(T);
-        return S * norm.cumulativeProbability(d1) - K * Math.exp(-r * T) * norm.cumulativeProbability(d2);
+        return S * FastNormal.cdf(d1) - K * Math.exp(-r * T) * FastNormal.cdf(d2);
     }
 
     public static void main(String[] args) {
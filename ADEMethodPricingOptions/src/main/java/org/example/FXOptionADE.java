@@ -1,7 +1,5 @@
 package org.example;
 
-import org.apache.commons.math3.distribution.NormalDistribution;
-
 // in FX options, the pricing model used is the Garman-Kohlhagen model,
 // which extends Black-Scholes by incorporating a foreign risk-free interest rate (r_f)
 // The primary change for FX options is in the drift term of the underlying stochastic process
@@ -111,10 +109,9 @@ public class FXOptionADE {
 
     // Verify with analytical Garman-Kohlhagen formula
     public static double garman_kohlhagen_call(double F, double K, double T, double r_d, double r_f, double sigma){
-        NormalDistribution norm = new NormalDistribution();
         double d1 = (Math.log(F / K) + (r_d - r_f + sigma*sigma / 2) * T) / (sigma * Math.sqrt(T));
         double d2 = d1 - sigma * Math.sqrt(T);
-        return F * Math.exp(-r_f * T) * norm.cumulativeProbability(d1) - K*Math.exp(-r_d * T) * norm.cumulativeProbability(d2);
+        return F * Math.exp(-r_f * T) * FastNormal.cdf(d1) - K*Math.exp(-r_d * T) * FastNormal.cdf(d2);
     }
 
     public static void main(String[] args){
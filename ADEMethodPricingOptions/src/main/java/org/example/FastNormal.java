@@ -0,0 +1,146 @@
+package org.example;
+
+// Standard normal density, distribution function and quantile function without
+// allocation, for the pricers' and solvers' inner loops. cdf uses W. J. Cody's
+// rational Chebyshev approximations (the algorithm behind R's pnorm), accurate to
+// about 1e-15 relative across the whole range, including the far tails.
+// inverseCdf starts from P. J. Acklam's rational approximation (relative error
+// 1.15e-9) and takes one Halley step against cdf, which brings it to about 1e-15
+// relative for p in [1e-300, 1 - 1e-16].
+// Same implementation as FastNormal in NewtonRaphsonForImpliedVol; the projects
+// build separately, so each carries its own copy.
+public final class FastNormal {
+    private static final double INV_SQRT_2PI = 0.398942280401432677939946059934;
+    private static final double SQRT_32 = 5.656854249492380195206754896838;
+
+    private static final double[] A = {
+            2.2352520354606839287, 161.02823106855587881, 1067.6894854603709582,
+            18154.981253343561249, 0.065682337918207449113};
+    private static final double[] B = {
+            47.20258190468824187, 976.09855173777669322, 10260.932208618978205,
+            45507.789335026729956};
+    private static final double[] C = {
+            0.39894151208813466764, 8.8831497943883759412, 93.506656132177855979,
+            597.27027639480026226, 2494.5375852903726711, 6848.1904505362823326,
+            11602.651437647350124, 9842.7148383839780218, 1.0765576773720192317e-8};
+    private static final double[] D = {
+            22.266688044328115691, 235.38790178262499861, 1519.377599407554805,
+            6485.558298266760755, 18615.571640885098091, 34900.952721145977266,
+            38912.003286093271411, 19685.429676859990727};
+    private static final double[] P = {
+            0.21589853405795699, 0.1274011611602473639, 0.022235277870649807,
+            0.001421619193227893466, 2.9112874951168792e-5, 0.02307344176494017303};
+    private static final double[] Q = {
+            1.28426009614491121, 0.468238212480865118, 0.0659881378689285515,
+            0.00378239633202758244, 7.29751555083966205e-5};
+
+    // Acklam's coefficients for the central region and the tails
+    private static final double[] ACKLAM_A = {
+            -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+    private static final double[] ACKLAM_B = {
+            -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01};
+    private static final double[] ACKLAM_C = {
+            -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+    private static final double[] ACKLAM_D = {
+            7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00};
+    private static final double P_LOW = 0.02425;
+    private static final double SQRT_2PI = 2.506628274631000502415765284811;
+
+    private FastNormal() {
+    }
+
+    public static double pdf(double x) {
+        return INV_SQRT_2PI * Math.exp(-0.5 * x * x);
+    }
+
+    public static double cdf(double x) {
+        if (Double.isNaN(x)) {
+            return Double.NaN;
+        }
+        double y = Math.abs(x);
+        if (y <= 0.67448975) {
+            // Central region: Phi(x) = 1/2 + x R(x^2)
+            double xnum = 0;
+            double xden = 0;
+            if (y > 1.1e-16) {
+                double xsq = x * x;
+                xnum = A[4] * xsq;
+                xden = xsq;
+                for (int i = 0; i < 3; i++) {
+                    xnum = (xnum + A[i]) * xsq;
+                    xden = (xden + B[i]) * xsq;
+                }
+            }
+            return 0.5 + x * (xnum + A[3]) / (xden + B[3]);
+        }
+        double tail; // Phi(-|x|)
+        if (y <= SQRT_32) {
+            double xnum = C[8] * y;
+            double xden = y;
+            for (int i = 0; i < 7; i++) {
+                xnum = (xnum + C[i]) * y;
+                xden = (xden + D[i]) * y;
+            }
+            tail = gaussianFactor(y) * (xnum + C[7]) / (xden + D[7]);
+        } else if (y < 40) {
+            // Asymptotic region: Phi(-y) = phi(y) / y * (1 - R(1 / y^2))
+            double xsq = 1 / (y * y);
+            double xnum = P[5] * xsq;
+            double xden = xsq;
+            for (int i = 0; i < 4; i++) {
+                xnum = (xnum + P[i]) * xsq;
+                xden = (xden + Q[i]) * xsq;
+            }
+            double r = xsq * (xnum + P[4]) / (xden + Q[4]);
+            tail = gaussianFactor(y) * (INV_SQRT_2PI - r) / y;
+        } else {
+            tail = 0; // Below the smallest double
+        }
+        return x > 0 ? 1 - tail : tail;
+    }
+
+    // exp(-y^2 / 2) split as exp(-ys^2 / 2) exp(-(y - ys)(y + ys) / 2), with ys = y rounded to 1/16,
+    // so the rounding error of y^2 does not swamp the tail
+    private static double gaussianFactor(double y) {
+        double ys = Math.floor(y * 16) / 16;
+        double del = (y - ys) * (y + ys);
+        return Math.exp(-ys * ys * 0.5) * Math.exp(-del * 0.5);
+    }
+
+    // x with cdf(x) = p; -infinity and +infinity at 0 and 1, NaN outside [0, 1]
+    public static double inverseCdf(double p) {
+        if (!(p >= 0 && p <= 1)) {
+            return Double.NaN;
+        }
+        if (p == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (p == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (p > 0.5) {
+            return -inverseCdf(1 - p); // 1 - p is exact here, and the refinement below works in the lower tail
+        }
+        double x;
+        if (p < P_LOW) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            x = (((((ACKLAM_C[0] * q + ACKLAM_C[1]) * q + ACKLAM_C[2]) * q + ACKLAM_C[3]) * q + ACKLAM_C[4]) * q + ACKLAM_C[5])
+                    / ((((ACKLAM_D[0] * q + ACKLAM_D[1]) * q + ACKLAM_D[2]) * q + ACKLAM_D[3]) * q + 1);
+        } else {
+            double q = p - 0.5;
+            double t = q * q;
+            x = (((((ACKLAM_A[0] * t + ACKLAM_A[1]) * t + ACKLAM_A[2]) * t + ACKLAM_A[3]) * t + ACKLAM_A[4]) * t + ACKLAM_A[5]) * q
+                    / (((((ACKLAM_B[0] * t + ACKLAM_B[1]) * t + ACKLAM_B[2]) * t + ACKLAM_B[3]) * t + ACKLAM_B[4]) * t + 1);
+        }
+        if (p < 1e-300) {
+            return x; // exp(x^2 / 2) below would overflow; Acklam's 1.15e-9 stands
+        }
+        // Halley step on cdf(x) - p: u is the Newton step, (1 + x u / 2) the curvature correction
+        double u = (cdf(x) - p) * SQRT_2PI * Math.exp(0.5 * x * x);
+        return x - u / (1 + 0.5 * x * u);
+    }
+}
@@ -4,8 +4,15 @@
 package ndswappricing;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import ndswappricing.NdfPricingMultiCurveBootstrap.CurveBootstrapper;
+import ndswappricing.NdfPricingMultiCurveBootstrap.CurveSet;
+import ndswappricing.NdfPricingMultiCurveBootstrap.Instrument;
+import ndswappricing.NdfPricingMultiCurveBootstrap.MarketQuote;
 import ndswappricing.NdfPricingMultiCurveBootstrap.YieldCurve;
 
 public class App {
@@ -52,6 +59,68 @@ public class App {
         
         System.out.printf("Multi-Curve NDF Forward (with 50bps Basis Spread): %.6f%n", ndfPriceWithSpread);
     }
+    public static void ndsCurveBootstrapperRunner() {
+        /* Case 5: all curve nodes bootstrapped from one strip of OIS, basis swap and NDF quotes */
+        System.out.println("--- Multi-Instrument Curve Bootstrapping ---");
+        double spotUSDCNY = 7.15;
+        double[] tenors = {0.25, 0.5, 1.0, 2.0, 3.0, 5.0};
+        double[] usdOisRates = {0.0405, 0.0410, 0.0420, 0.0415, 0.0410, 0.0405};
+        double[] basisSpreads = {0.0010, 0.0012, 0.0015, 0.0018, 0.0020, 0.0022};
+        double[] ndfOutrights = {7.1200, 7.0900, 7.0300, 6.9200, 6.8200, 6.6200};
+        List<MarketQuote> strip = new ArrayList<>();
+        for (int i = 0; i < tenors.length; i++) {
+            strip.add(new MarketQuote(Instrument.OIS, tenors[i], usdOisRates[i]));
+            strip.add(new MarketQuote(Instrument.BASIS_SWAP, tenors[i], basisSpreads[i]));
+            strip.add(new MarketQuote(Instrument.NDF, tenors[i], ndfOutrights[i]));
+        }
+        CurveBootstrapper bootstrapper = new CurveBootstrapper(spotUSDCNY, strip.toArray(new MarketQuote[0]));
+
+        CurveSet sequential = bootstrapper.build(CurveBootstrapper.Method.SEQUENTIAL);
+        System.out.printf("Sequential build: %d Newton steps, max residual %.1e, %.1f us%n",
+            bootstrapper.lastIterations, bootstrapper.lastMaxResidual, bootstrapper.lastBuildNanos / 1e3);
+        CurveBootstrapper global = new CurveBootstrapper(spotUSDCNY, strip.toArray(new MarketQuote[0]));
+        CurveSet simultaneous = global.build(CurveBootstrapper.Method.GLOBAL_NEWTON);
+        System.out.printf("Global Newton build: %d Newton steps, max residual %.1e, %.1f us%n",
+            global.lastIterations, global.lastMaxResidual, global.lastBuildNanos / 1e3);
+        System.out.println("Tenor  USD OIS zero  USD forecast zero  CNY zero   NDF repriced (quote)");
+        double maxDifference = 0;
+        for (int i = 0; i < tenors.length; i++) {
+            double t = tenors[i];
+            maxDifference = Math.max(maxDifference, Math.abs(sequential.oisQuote.getZeroRate(t) - simultaneous.oisQuote.getZeroRate(t)));
+            System.out.printf("%-6.2f %-13.6f %-18.6f %-10.6f %.6f (%.4f)%n", t, simultaneous.oisBase.getZeroRate(t),
+                simultaneous.forecastBase.getZeroRate(t), simultaneous.oisQuote.getZeroRate(t),
+                simultaneous.priceNdf(spotUSDCNY, t), ndfOutrights[i]);
+        }
+        System.out.printf("Max CNY zero rate difference, sequential vs global: %.1e%n", maxDifference);
+
+        // Rebuild on every tick: one quote or the spot moves, and each build starts from the last curves
+        Random random = new Random(7);
+        int ticks = 20_000;
+        for (CurveBootstrapper.Method method : CurveBootstrapper.Method.values()) {
+            CurveBootstrapper engine = (method == CurveBootstrapper.Method.SEQUENTIAL) ? bootstrapper : global;
+            long totalNanos = 0;
+            long maxNanos = 0;
+            long iterations = 0;
+            for (int tick = 0; tick < ticks; tick++) {
+                int node = random.nextInt(engine.size() + 1);
+                if (node == engine.size()) {
+                    engine.updateSpot(spotUSDCNY + 0.002 * random.nextGaussian());
+                } else {
+                    double bump = (engine.instruments[node] == Instrument.NDF) ? 0.002 : 0.00005; // 0.5bp on rates
+                    engine.updateQuote(node, engine.quotes[node] + bump * random.nextGaussian());
+                }
+                engine.build(method);
+                if (tick >= ticks / 2) { // Second half, after warm-up
+                    totalNanos += engine.lastBuildNanos;
+                    maxNanos = Math.max(maxNanos, engine.lastBuildNanos);
+                    iterations += engine.lastIterations;
+                }
+            }
+            System.out.printf("%-13s rebuild per tick: mean %.1f us, max %.1f us, %.2f Newton steps%n", method,
+                totalNanos / 1e3 / (ticks / 2), maxNanos / 1e3, (double) iterations / (ticks / 2));
+        }
+    }
+
     public static void main(String[] args) {
         /* Case 1: Simple pricing case */
         // Market Data
@@ -134,26 +203,40 @@ public class App {
         double volatility = 0.10; // 10% annualized volatility
         LocalDate fixingDate = LocalDate.of(2026, 4, 26);
         int numSimulations = 10000;
-        
-        double sumOfPayoffs = 0;
         double agreedNdfRate = 6.5000; // Rate agreed upon at trade start
-
-        for (int i = 0; i < numSimulations; i++) {
-            double simulatedFixingRate = NdfPricingMC.simulateFutureSpotRate(currentSpot, riskFreeRate, volatility, today, fixingDate);
-            // Payoff is settled in the quote currency's value (typically USD in NDFs)
-            // Payoff = Notional (Base) * (AgreedRate - FixingRate) / FixingRate (if settling in Quote currency) 
-            // Or simpler (as in previous code, settled in value of 1 USD=1USD): 
-            double payoff = notionalUSD * (agreedNdfRate - simulatedFixingRate); 
-            sumOfPayoffs += payoff;
+        long seed = 42;
+
+        // Payoff is settled in the quote currency's value (typically USD in NDFs):
+        // Notional * (AgreedRate - FixingRate), as in calculateNdfSettlement
+        NdfPricingMC.MonteCarloResult presentValue = NdfPricingMC.priceNdf(currentSpot, riskFreeRate, volatility, today,
+            fixingDate, agreedNdfRate, notionalUSD, numSimulations, seed);
+        System.out.printf("Estimated Present Value of NDF via Monte Carlo: %s\n", presentValue);
+
+        // Same trade with millions of paths, timed after a warm-up run
+        int manyPaths = 4_000_000;
+        NdfPricingMC.priceNdf(currentSpot, riskFreeRate, volatility, today, fixingDate, agreedNdfRate, notionalUSD, manyPaths, seed);
+        long start = System.nanoTime();
+        NdfPricingMC.MonteCarloResult presentValueManyPaths = NdfPricingMC.priceNdf(currentSpot, riskFreeRate, volatility,
+            today, fixingDate, agreedNdfRate, notionalUSD, manyPaths, seed);
+        System.out.printf("Estimated Present Value of NDF via Monte Carlo (%.1f ms): %s\n",
+            (System.nanoTime() - start) / 1e6, presentValueManyPaths);
+
+        // Variance reduction: the same path budget per sampling mode, and the paths plain sampling would need
+        // for the same standard error
+        int budget = 1 << 16;
+        for (NdfPricingMC.Sampling sampling : NdfPricingMC.Sampling.values()) {
+            NdfPricingMC.MonteCarloResult result = NdfPricingMC.priceNdf(currentSpot, riskFreeRate, volatility, today,
+                fixingDate, agreedNdfRate, notionalUSD, budget, seed, sampling);
+            double plainStandardError = presentValueManyPaths.standardError() * Math.sqrt(manyPaths / (double) budget);
+            double equivalentPaths = budget * Math.pow(plainStandardError / result.standardError(), 2);
+            System.out.printf("  %-15s %s, as accurate as %s plain paths\n", sampling, result,
+                Double.isInfinite(equivalentPaths) ? "any number of" : String.format("%,.0f", equivalentPaths));
         }
-
-        double averagePayoff = sumOfPayoffs / numSimulations;
-        // Discount the average payoff back to today (simplified PV calculation)
-        long daysBetween = ChronoUnit.DAYS.between(today, fixingDate);
-        double timeToMaturity = (double) daysBetween / 365.0;
-        double presentValue = averagePayoff * Math.exp(-riskFreeRate * timeToMaturity);
-
-        System.out.printf("Estimated Present Value of NDF via Monte Carlo: $%,.2f\n", presentValue);
+        // Sobol over a weekly grid to the fixing: the bridge still puts the fixing on the first coordinate
+        NdfPricingMC.MonteCarloResult bridged = NdfPricingMC.priceNdf(currentSpot, riskFreeRate, volatility, today,
+            fixingDate, agreedNdfRate, notionalUSD, budget, seed, NdfPricingMC.Sampling.SOBOL, 13, ForkJoinPool.commonPool());
+        System.out.printf("  %-15s %s\n", "SOBOL 13 steps", bridged);
         ndsMultiCurveBootstrapRunner();
+        ndsCurveBootstrapperRunner();
     }
 }
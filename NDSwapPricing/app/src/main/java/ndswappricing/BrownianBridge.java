@@ -0,0 +1,90 @@
+package ndswappricing;
+
+/*
+* Builds a Brownian path W(t_1) .. W(t_n) from n independent standard normals in bridge order: the first
+* normal sets the end point W(t_n), the second the midpoint given both ends, and so on, halving the
+* intervals. With a quasi-random sequence the first coordinates are the best distributed ones, so the
+* bridge spends them on the large-scale shape of the path and leaves the fine detail to the later, weaker
+* coordinates. The index and weight tables are computed once for the time grid; transform is then a
+* single pass with no allocation.
+*/
+public class BrownianBridge {
+    private final int size;
+    private final int[] bridgeIndex;
+    private final int[] leftIndex;
+    private final int[] rightIndex;
+    private final double[] leftWeight;
+    private final double[] rightWeight;
+    private final double[] stdDev;
+
+    // Equally spaced grid timeToMaturity / steps, 2 timeToMaturity / steps, .., timeToMaturity
+    public BrownianBridge(int steps, double timeToMaturity) {
+        this(equallySpaced(steps, timeToMaturity));
+    }
+
+    public BrownianBridge(double[] times) {
+        if (times.length == 0 || !(times[0] > 0)) {
+            throw new IllegalArgumentException("Bridge needs at least one positive time");
+        }
+        for (int i = 1; i < times.length; i++) {
+            if (!(times[i] > times[i - 1])) {
+                throw new IllegalArgumentException("Bridge times must be increasing: " + times[i - 1] + ", " + times[i]);
+            }
+        }
+        this.size = times.length;
+        this.bridgeIndex = new int[size];
+        this.leftIndex = new int[size];
+        this.rightIndex = new int[size];
+        this.leftWeight = new double[size];
+        this.rightWeight = new double[size];
+        this.stdDev = new double[size];
+
+        boolean[] mapped = new boolean[size];
+        mapped[size - 1] = true;
+        bridgeIndex[0] = size - 1;
+        stdDev[0] = Math.sqrt(times[size - 1]);
+        // Each later normal fills the middle of the leftmost interval still empty, [j, k), between known points
+        for (int i = 1, j = 0; i < size; i++) {
+            while (mapped[j]) {
+                j++;
+            }
+            int k = j;
+            while (!mapped[k]) {
+                k++;
+            }
+            int l = j + ((k - 1 - j) >> 1);
+            mapped[l] = true;
+            bridgeIndex[i] = l;
+            leftIndex[i] = j;
+            rightIndex[i] = k;
+            double left = (j == 0) ? 0 : times[j - 1];
+            leftWeight[i] = (times[k] - times[l]) / (times[k] - left);
+            rightWeight[i] = (times[l] - left) / (times[k] - left);
+            stdDev[i] = Math.sqrt((times[l] - left) * (times[k] - times[l]) / (times[k] - left));
+            j = (k + 1 < size) ? k + 1 : 0;
+        }
+    }
+
+    // path[i] = W(t_i), with normals[0] driving the end point
+    public void transform(double[] normals, double[] path) {
+        path[size - 1] = stdDev[0] * normals[0];
+        for (int i = 1; i < size; i++) {
+            int j = leftIndex[i];
+            int l = bridgeIndex[i];
+            double left = (j == 0) ? 0 : leftWeight[i] * path[j - 1];
+            path[l] = left + rightWeight[i] * path[rightIndex[i]] + stdDev[i] * normals[i];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static double[] equallySpaced(int steps, double timeToMaturity) {
+        double[] times = new double[steps];
+        for (int i = 0; i < steps; i++) {
+            times[i] = timeToMaturity * (i + 1) / steps;
+        }
+        return times;
+    }
+}
@@ -2,7 +2,10 @@ package ndswappricing;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
 
 /*
 * Simulation of XD paths using geometric brownian motion under a risk neutral measure
@@ -10,8 +13,47 @@ import java.util.Random;
 * at maturity. Average all simulated payoffs, discount result back to PV using RFR interest rate
 * to get NDF current price. MC simulation is best when we need to incorporate stochastic volatility
 * or correlations between multiple risk factors which is difficult to model analytically.
+* priceNdf is the batch engine: day count, drift and diffusion are computed once, paths are split into
+* fixed blocks of PATHS_PER_BLOCK, each with its own SplittableRandom split off the seed in block order,
+* and each block draws its normals into a primitive array a chunk at a time. Blocks run in parallel and
+* their payoff sums are added in block order, so a seed gives the same price on any number of threads.
+* Every price comes with its standard error, and a Sampling mode trades a little work per path for a
+* smaller one at the same path count:
+*  - ANTITHETIC prices each normal together with its negation and averages the pair,
+*  - CONTROL_VARIATE regresses the payoff on the simulated fixing rate, whose mean is known in closed form
+*    (NdfSimplePricingCases.calculateContinuousForwardRate), and corrects the price by the fixing's
+*    sampling error. The NDF payoff is linear in the fixing, so here the correction removes all of the
+*    noise; it is kept general so that it still helps once the model or the payoff is not,
+*  - SOBOL replaces the pseudo-random normals with a Sobol sequence through an inverse normal CDF, laid out
+*    over the time grid with a BrownianBridge. QMC_REPLICATES independently shifted copies of the sequence
+*    share the paths, and the spread of their prices is the standard error.
+* The standard error of the pseudo-random modes is the sample standard deviation of the payoff over
+* sqrt(paths), discounted and scaled by the notional like the price.
 */
 public class NdfPricingMC {
+    public static final int PATHS_PER_BLOCK = 1 << 16;
+    private static final int NORMALS_PER_CHUNK = 1024;
+    public static final int QMC_REPLICATES = 16;
+
+    // Per-block sums kept for the standard error and the control variate regression
+    private static final int SUM_PAYOFF = 0;
+    private static final int SUM_PAYOFF_SQUARED = 1;
+    private static final int SUM_CONTROL = 2;
+    private static final int SUM_CONTROL_SQUARED = 3;
+    private static final int SUM_PAYOFF_CONTROL = 4;
+    private static final int MOMENTS = 5;
+
+    // Coefficients of the inverse normal CDF, central region (A, B) and tails (C, D)
+    private static final double[] A = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+    private static final double[] B = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01};
+    private static final double[] C = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+    private static final double[] D = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00};
+    private static final double P_LOW = 0.02425;
+
     public static double simulateFutureSpotRate(
             double spotRate, 
             double riskFreeRate, // Use one rate as a proxy for risk-neutral drift
@@ -21,8 +63,7 @@ public class NdfPricingMC {
         
         long daysBetween = ChronoUnit.DAYS.between(valuationDate, fixingDate);
         double timeToMaturity = (double) daysBetween / 365.0; // Use 365 for GBM
-        Random rand = new Random();
-        double randomFactor = rand.nextGaussian(); // Standard normal random number
+        double randomFactor = ThreadLocalRandom.current().nextGaussian(); // Standard normal random number
 
         // GBM formula under risk-neutral measure: S(T) = S(0) * exp((r - 0.5*sigma^2)*T + sigma*sqrt(T)*Z)
         double futureSpot = spotRate * Math.exp(
@@ -32,4 +73,265 @@ public class NdfPricingMC {
 
         return futureSpot;
     }
+
+    /**
+     * Prices an NDF by simulating numPaths fixing rates, on the common fork-join pool.
+     * @param agreedNdfRate The forward rate agreed upon at trade inception.
+     * @param notionalAmount The principal amount of the trade (in base currency).
+     * @param seed Seed of the random streams; the same seed gives the same price on any number of threads.
+     * @return The present value of Notional * (AgreedRate - FixingRate), discounted at riskFreeRate, and its standard error.
+     */
+    public static MonteCarloResult priceNdf(
+            double spotRate,
+            double riskFreeRate,
+            double volatility,
+            LocalDate valuationDate,
+            LocalDate fixingDate,
+            double agreedNdfRate,
+            double notionalAmount,
+            int numPaths,
+            long seed) {
+        return priceNdf(spotRate, riskFreeRate, volatility, valuationDate, fixingDate, agreedNdfRate, notionalAmount,
+                numPaths, seed, Sampling.PLAIN);
+    }
+
+    public static MonteCarloResult priceNdf(
+            double spotRate,
+            double riskFreeRate,
+            double volatility,
+            LocalDate valuationDate,
+            LocalDate fixingDate,
+            double agreedNdfRate,
+            double notionalAmount,
+            int numPaths,
+            long seed,
+            Sampling sampling) {
+        return priceNdf(spotRate, riskFreeRate, volatility, valuationDate, fixingDate, agreedNdfRate, notionalAmount,
+                numPaths, seed, sampling, 1, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param sampling How the normals are drawn, see the class comment.
+     * @param timeSteps Points on the path grid up to the fixing date; only SOBOL builds the path, through a
+     *                  BrownianBridge, and at most SobolSequence.MAX_DIMENSION of them. The pseudo-random modes
+     *                  draw the fixing rate exactly in one step.
+     */
+    public static MonteCarloResult priceNdf(
+            double spotRate,
+            double riskFreeRate,
+            double volatility,
+            LocalDate valuationDate,
+            LocalDate fixingDate,
+            double agreedNdfRate,
+            double notionalAmount,
+            int numPaths,
+            long seed,
+            Sampling sampling,
+            int timeSteps,
+            ForkJoinPool pool) {
+        if (numPaths <= 0) {
+            throw new IllegalArgumentException("Number of paths must be positive: " + numPaths);
+        }
+        if (sampling == Sampling.SOBOL && (timeSteps < 1 || timeSteps > SobolSequence.MAX_DIMENSION)) {
+            // Checked here rather than where the pool builds the sequences, which would wrap the exception
+            throw new IllegalArgumentException("SOBOL needs 1 to " + SobolSequence.MAX_DIMENSION + " time steps: " + timeSteps);
+        }
+
+        long daysBetween = ChronoUnit.DAYS.between(valuationDate, fixingDate);
+        double timeToMaturity = (double) daysBetween / 365.0;
+        double drift = (riskFreeRate - 0.5 * volatility * volatility) * timeToMaturity;
+        double scale = notionalAmount * Math.exp(-riskFreeRate * timeToMaturity);
+        if (sampling == Sampling.SOBOL) {
+            return priceQuasiRandom(spotRate, drift, volatility, timeToMaturity, agreedNdfRate, scale, numPaths, seed,
+                    timeSteps, pool);
+        }
+        double diffusion = volatility * Math.sqrt(timeToMaturity);
+        // Mean of the simulated fixing rate: the one-rate GBM is the continuous forward with a zero base rate
+        double forward = NdfSimplePricingCases.calculateContinuousForwardRate(spotRate, 0, riskFreeRate, timeToMaturity);
+
+        // Antithetic samples are pairs of paths; a block covers PATHS_PER_BLOCK paths either way
+        int pathsPerSample = (sampling == Sampling.ANTITHETIC) ? 2 : 1;
+        int samples = (numPaths + pathsPerSample - 1) / pathsPerSample;
+        int samplesPerBlock = PATHS_PER_BLOCK / pathsPerSample;
+        int blocks = (samples + samplesPerBlock - 1) / samplesPerBlock;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++) {
+            streams[b] = root.split(); // In block order, so block b always gets the same stream
+        }
+        double[][] blockMoments = new double[blocks][];
+        pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(b -> blockMoments[b] = simulateBlock(
+                streams[b], Math.min(samplesPerBlock, samples - b * samplesPerBlock), sampling, spotRate, drift, diffusion,
+                agreedNdfRate, forward)))
+                .join();
+        double[] moments = new double[MOMENTS];
+        for (double[] block : blockMoments) {
+            for (int m = 0; m < MOMENTS; m++) {
+                moments[m] += block[m];
+            }
+        }
+
+        double meanPayoff = moments[SUM_PAYOFF] / samples;
+        double payoffVariance = moments[SUM_PAYOFF_SQUARED] / samples - meanPayoff * meanPayoff;
+        if (sampling == Sampling.CONTROL_VARIATE) {
+            // Control c = FixingRate - forward has mean zero; price = mean(payoff - beta c), beta from the regression
+            double meanControl = moments[SUM_CONTROL] / samples;
+            double controlVariance = moments[SUM_CONTROL_SQUARED] / samples - meanControl * meanControl;
+            double covariance = moments[SUM_PAYOFF_CONTROL] / samples - meanPayoff * meanControl;
+            double beta = (controlVariance > 0) ? covariance / controlVariance : 0;
+            meanPayoff -= beta * meanControl;
+            payoffVariance -= beta * covariance;
+        }
+        double standardError = Math.sqrt(Math.max(payoffVariance, 0) / Math.max(samples - 1, 1));
+        return new MonteCarloResult(scale * meanPayoff, scale * standardError, (long) samples * pathsPerSample);
+    }
+
+    // Moments summed over a block of samples, per unit notional
+    private static double[] simulateBlock(SplittableRandom random, int samples, Sampling sampling, double spotRate,
+            double drift, double diffusion, double agreedNdfRate, double forward) {
+        double[] normals = new double[NORMALS_PER_CHUNK];
+        double[] moments = new double[MOMENTS];
+        for (int done = 0; done < samples; done += NORMALS_PER_CHUNK) {
+            int n = Math.min(NORMALS_PER_CHUNK, samples - done);
+            for (int i = 0; i < n; i++) {
+                normals[i] = random.nextGaussian();
+            }
+            switch (sampling) {
+                case PLAIN -> {
+                    for (int i = 0; i < n; i++) {
+                        double payoff = agreedNdfRate - spotRate * Math.exp(drift + diffusion * normals[i]);
+                        moments[SUM_PAYOFF] += payoff;
+                        moments[SUM_PAYOFF_SQUARED] += payoff * payoff;
+                    }
+                }
+                case ANTITHETIC -> {
+                    for (int i = 0; i < n; i++) {
+                        double fixingRate = 0.5 * spotRate * (Math.exp(drift + diffusion * normals[i])
+                                + Math.exp(drift - diffusion * normals[i]));
+                        double payoff = agreedNdfRate - fixingRate;
+                        moments[SUM_PAYOFF] += payoff;
+                        moments[SUM_PAYOFF_SQUARED] += payoff * payoff;
+                    }
+                }
+                case CONTROL_VARIATE -> {
+                    for (int i = 0; i < n; i++) {
+                        double fixingRate = spotRate * Math.exp(drift + diffusion * normals[i]);
+                        double payoff = agreedNdfRate - fixingRate;
+                        double control = fixingRate - forward;
+                        moments[SUM_PAYOFF] += payoff;
+                        moments[SUM_PAYOFF_SQUARED] += payoff * payoff;
+                        moments[SUM_CONTROL] += control;
+                        moments[SUM_CONTROL_SQUARED] += control * control;
+                        moments[SUM_PAYOFF_CONTROL] += payoff * control;
+                    }
+                }
+                default -> throw new IllegalArgumentException("Not a pseudo-random sampling: " + sampling);
+            }
+        }
+        return moments;
+    }
+
+    // Randomised QMC: the replicates run in parallel, each over its own digital shift of the same Sobol points
+    private static MonteCarloResult priceQuasiRandom(double spotRate, double drift, double volatility, double timeToMaturity,
+            double agreedNdfRate, double scale, int numPaths, long seed, int timeSteps, ForkJoinPool pool) {
+        int pointsPerReplicate = (numPaths + QMC_REPLICATES - 1) / QMC_REPLICATES;
+        SplittableRandom root = new SplittableRandom(seed);
+        long[][] shifts = new long[QMC_REPLICATES][timeSteps];
+        for (long[] shift : shifts) {
+            for (int d = 0; d < timeSteps; d++) {
+                shift[d] = root.nextLong() >>> 32;
+            }
+        }
+        BrownianBridge bridge = new BrownianBridge(timeSteps, timeToMaturity);
+        double[] replicateMeans = new double[QMC_REPLICATES];
+        pool.submit(() -> IntStream.range(0, QMC_REPLICATES).parallel().forEach(q -> replicateMeans[q] = simulateReplicate(
+                new SobolSequence(timeSteps, shifts[q]), bridge, pointsPerReplicate, spotRate, drift, volatility, agreedNdfRate)))
+                .join();
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (double mean : replicateMeans) {
+            sum += mean;
+            sumOfSquares += mean * mean;
+        }
+        double meanPayoff = sum / QMC_REPLICATES;
+        double replicateVariance = (sumOfSquares - sum * meanPayoff) / (QMC_REPLICATES - 1);
+        double standardError = Math.sqrt(Math.max(replicateVariance, 0) / QMC_REPLICATES);
+        return new MonteCarloResult(scale * meanPayoff, scale * standardError, (long) pointsPerReplicate * QMC_REPLICATES);
+    }
+
+    // Mean of (AgreedRate - FixingRate) over the first points of one shifted Sobol sequence
+    private static double simulateReplicate(SobolSequence sobol, BrownianBridge bridge, int points, double spotRate,
+            double drift, double volatility, double agreedNdfRate) {
+        int steps = bridge.size();
+        double[] uniforms = new double[steps];
+        double[] normals = new double[steps];
+        double[] path = new double[steps];
+        sobol.skipTo(0);
+        double sum = 0;
+        for (int p = 0; p < points; p++) {
+            sobol.next(uniforms);
+            for (int d = 0; d < steps; d++) {
+                normals[d] = inverseCumulativeNormal(uniforms[d]);
+            }
+            bridge.transform(normals, path);
+            // The NDF only reads the fixing, W at the last grid time, which the bridge draws from the first coordinate
+            sum += agreedNdfRate - spotRate * Math.exp(drift + volatility * path[steps - 1]);
+        }
+        return sum / points;
+    }
+
+    // Acklam's rational approximation, relative error below 1.2e-9: far inside any Monte Carlo error
+    static double inverseCumulativeNormal(double p) {
+        if (p < P_LOW) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5])
+                    / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+        if (p > 1 - P_LOW) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5])
+                    / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((A[0] * r + A[1]) * r + A[2]) * r + A[3]) * r + A[4]) * r + A[5]) * q
+                / (((((B[0] * r + B[1]) * r + B[2]) * r + B[3]) * r + B[4]) * r + 1);
+    }
+
+    public enum Sampling {
+        PLAIN,
+        ANTITHETIC,
+        CONTROL_VARIATE,
+        SOBOL
+    }
+
+    // A Monte Carlo price and its standard error, both in currency
+    public static class MonteCarloResult {
+        final double presentValue;
+        final double standardError;
+        final long paths;
+
+        MonteCarloResult(double presentValue, double standardError, long paths) {
+            this.presentValue = presentValue;
+            this.standardError = standardError;
+            this.paths = paths;
+        }
+
+        public double presentValue() {
+            return presentValue;
+        }
+
+        public double standardError() {
+            return standardError;
+        }
+
+        public long paths() {
+            return paths;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("$%,.2f +/- $%,.2f (%,d paths)", presentValue, standardError, paths);
+        }
+    }
 }
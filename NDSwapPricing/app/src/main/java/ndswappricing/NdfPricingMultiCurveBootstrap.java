@@ -7,14 +7,28 @@ import java.util.*;
 * 1. Market Data: Simple structures for OIS and NDF quotes. 
 * 2. Pricing functions: Logic to derive forward rates from a multi-curve setup.
 * 3. Solver: Newton-Raphson implementation to solve for "zero rate" of curve.
+* 4. CurveBootstrapper: builds every node of the three curves priceNdfMultiCurve needs from one strip of
+*    OIS, basis swap and NDF quotes, either node by node or all at once with a Jacobian Newton solve.
 */
 public class NdfPricingMultiCurveBootstrap {
     // --- 1. Market Data Structures ---
+    enum Instrument {
+        OIS, // Base currency OIS par rate, annual fixed leg: sets the base OIS (discount) curve
+        BASIS_SWAP, // Spread paid over base OIS against the forecast index, quarterly: sets the forecast curve
+        NDF // Outright NDF forward rate: sets the quote currency curve
+    }
+
     static class MarketQuote {
+        Instrument instrument;
         double tenorInYears;
-        double rate; // Annualized rate (e.g., 0.05 for 5%)
+        double rate; // Annualized rate (e.g., 0.05 for 5%), basis spread, or NDF outright
 
         MarketQuote(double tenor, double rate) {
+            this(Instrument.OIS, tenor, rate);
+        }
+
+        MarketQuote(Instrument instrument, double tenor, double rate) {
+            this.instrument = instrument;
             this.tenorInYears = tenor;
             this.rate = rate;
         }
@@ -48,9 +62,8 @@ public class NdfPricingMultiCurveBootstrap {
     // Finds the Zero Rate that makes the NPV of an instrument zero.
     // This illustrates how you would "extract" curve rate from market price. 
     // In a full system, would loop through multiple market instruments (OIS,
-    // Swaps, Tenor Basis Swaps) to build the full nodes map
-    // Future extension: expand method to handle vector of instruments simultaneously
-    // using a Jacobian matrix.
+    // Swaps, Tenor Basis Swaps) to build the full nodes map: see CurveBootstrapper,
+    // which also handles the vector of instruments simultaneously using a Jacobian matrix.
     public static double solveZeroRate(double targetPrice, double tenor, YieldCurve currentCurve) {
         double rate = 0.03; // Initial guess
         double tolerance = 1e-8;
@@ -84,4 +97,337 @@ public class NdfPricingMultiCurveBootstrap {
         // This is a simplified representation of the dual-curve parity
         return spot * (dfBaseOis / dfQuoteOis) * Math.exp(forecastRateBase * tenor);
     }
+
+    // --- 5. Multi-Instrument Bootstrapper ---
+    // Every quote in the strip puts one zero rate node on the curve its instrument sets, at its tenor, so
+    // there are as many unknowns as quotes. Each instrument is written as a residual in discount factors
+    // that is zero when the curves reprice it, with its derivative in every node zero rate analytic:
+    // dP(t)/dz_k = -t w_k(t) P(t), where w_k are the linear interpolation weights of node k at t.
+    //  - OIS: K sum(tau_i P(t_i)) - (1 - P(T)) on the base OIS curve,
+    //  - basis swap: sum(P(t_i) (Pf(t_i-1) / Pf(t_i) - 1) - (P(t_i-1) - P(t_i)) - s tau_i P(t_i)), the
+    //    forecast leg against OIS plus the spread, both discounted on base OIS,
+    //  - NDF: priceNdfMultiCurve / spot - F / spot, so the built curves reprice the outright exactly.
+    // SEQUENTIAL solves the curves in dependency order (OIS, forecast, quote), one node at a time in tenor
+    // order with scalar Newton, while later nodes are not yet on the curve. That is exact as long as no
+    // instrument depends on a node beyond its own tenor. GLOBAL_NEWTON solves all nodes together,
+    // z -= J^-1 r with the full Jacobian, and does not need that structure. Both start from the previous
+    // build, since curves are rebuilt on every market data tick and the market rarely moves far between
+    // two of them. Not thread-safe: a bootstrapper keeps the state of its last build.
+    static class CurveBootstrapper {
+        enum Method { SEQUENTIAL, GLOBAL_NEWTON }
+
+        private static final int OIS_PAYMENTS_PER_YEAR = 1;
+        private static final int BASIS_PAYMENTS_PER_YEAR = 4;
+        private static final double TOLERANCE = 1e-12;
+        private static final int MAX_ITERATIONS = 50;
+
+        final double[] quotes; // Quoted values, indexed like the nodes
+        final Instrument[] instruments;
+        final double[][] schedules; // Per node: 0, then the payment times up to the tenor
+        final CurveNodes oisBase;
+        final CurveNodes forecastBase;
+        final CurveNodes oisQuote;
+        final double[] zeros; // Node zero rates, the unknowns: OIS nodes, then forecast, then quote curve
+        double spot;
+
+        long lastBuildNanos;
+        int lastIterations;
+        double lastMaxResidual;
+
+        CurveBootstrapper(double spot, MarketQuote... strip) {
+            this.spot = spot;
+            List<MarketQuote> ordered = new ArrayList<>(Arrays.asList(strip));
+            ordered.sort(Comparator.comparing((MarketQuote quote) -> quote.instrument).thenComparingDouble(quote -> quote.tenorInYears));
+            int n = ordered.size();
+            this.quotes = new double[n];
+            this.instruments = new Instrument[n];
+            this.schedules = new double[n][];
+            this.zeros = new double[n];
+            int[] counts = new int[Instrument.values().length];
+            for (int i = 0; i < n; i++) {
+                MarketQuote quote = ordered.get(i);
+                if (!(quote.tenorInYears > 0)) {
+                    throw new IllegalArgumentException("Quote tenor must be positive: " + quote.tenorInYears);
+                }
+                if (i > 0 && instruments[i - 1] == quote.instrument && ordered.get(i - 1).tenorInYears == quote.tenorInYears) {
+                    throw new IllegalArgumentException("Two " + quote.instrument + " quotes at tenor " + quote.tenorInYears);
+                }
+                quotes[i] = quote.rate;
+                instruments[i] = quote.instrument;
+                schedules[i] = schedule(quote.tenorInYears,
+                        (quote.instrument == Instrument.BASIS_SWAP) ? BASIS_PAYMENTS_PER_YEAR : OIS_PAYMENTS_PER_YEAR);
+                zeros[i] = 0.02; // First build only; later builds start from the last curves
+                counts[quote.instrument.ordinal()]++;
+            }
+            int forecastOffset = counts[Instrument.OIS.ordinal()];
+            int quoteOffset = forecastOffset + counts[Instrument.BASIS_SWAP.ordinal()];
+            this.oisBase = new CurveNodes(ordered, 0, forecastOffset);
+            this.forecastBase = new CurveNodes(ordered, forecastOffset, quoteOffset);
+            this.oisQuote = new CurveNodes(ordered, quoteOffset, n);
+        }
+
+        // New value for the i-th quote of the strip in node order: instrument (OIS, BASIS_SWAP, NDF), then tenor
+        void updateQuote(int node, double value) {
+            quotes[node] = value;
+        }
+
+        void updateSpot(double spot) {
+            this.spot = spot;
+        }
+
+        int size() {
+            return zeros.length;
+        }
+
+        // Builds all three curves from the current quotes; throws IllegalStateException if the solve does not
+        // converge, and then leaves the nodes of the last good build, so the next build starts from them
+        CurveSet build(Method method) {
+            long start = System.nanoTime();
+            lastIterations = 0;
+            double[] lastGood = zeros.clone();
+            try {
+                if (method == Method.SEQUENTIAL) {
+                    solveSequential();
+                } else {
+                    solveGlobal();
+                }
+            } catch (RuntimeException e) {
+                System.arraycopy(lastGood, 0, zeros, 0, zeros.length);
+                throw e;
+            }
+            lastBuildNanos = System.nanoTime() - start;
+            return new CurveSet(oisBase.toYieldCurve(), oisQuote.toYieldCurve(), forecastBase.toYieldCurve());
+        }
+
+        private void solveSequential() {
+            CurveNodes[] order = {oisBase, forecastBase, oisQuote};
+            for (CurveNodes curve : order) {
+                curve.size = 0;
+            }
+            double[] row = new double[zeros.length];
+            lastMaxResidual = 0;
+            for (CurveNodes curve : order) {
+                for (int k = 0; k < curve.times.length; k++) {
+                    curve.size = k + 1; // Node k joins the curve, and extrapolates flat beyond it
+                    int node = curve.offset + k;
+                    double residual = residual(node, row);
+                    for (int i = 0; !(Math.abs(residual) <= TOLERANCE); i++) { // A NaN residual does not pass as converged
+                        if (i == MAX_ITERATIONS || !Double.isFinite(residual) || !(row[node] != 0)) {
+                            throw new IllegalStateException("No convergence for " + instruments[node] + " node " + curve.times[k]);
+                        }
+                        zeros[node] -= residual / row[node];
+                        lastIterations++;
+                        residual = residual(node, row);
+                    }
+                    lastMaxResidual = Math.max(lastMaxResidual, Math.abs(residual));
+                }
+            }
+        }
+
+        private void solveGlobal() {
+            oisBase.size = oisBase.times.length;
+            forecastBase.size = forecastBase.times.length;
+            oisQuote.size = oisQuote.times.length;
+            int n = zeros.length;
+            double[][] jacobian = new double[n][n];
+            double[] residuals = new double[n];
+            for (int i = 0; ; i++) {
+                lastMaxResidual = 0;
+                for (int node = 0; node < n; node++) {
+                    residuals[node] = residual(node, jacobian[node]);
+                    lastMaxResidual = Math.max(lastMaxResidual, Math.abs(residuals[node]));
+                }
+                if (lastMaxResidual <= TOLERANCE) {
+                    return;
+                }
+                if (i == MAX_ITERATIONS || !Double.isFinite(lastMaxResidual)) {
+                    throw new IllegalStateException("No convergence after " + i + " iterations, max residual " + lastMaxResidual);
+                }
+                solveLinear(jacobian, residuals); // residuals becomes the Newton step
+                for (int node = 0; node < n; node++) {
+                    zeros[node] -= residuals[node];
+                }
+                lastIterations++;
+            }
+        }
+
+        // Residual of the instrument that sets this node; row receives its derivative in every node zero rate
+        double residual(int node, double[] row) {
+            Arrays.fill(row, 0);
+            double[] times = schedules[node];
+            int last = times.length - 1;
+            double tenor = times[last];
+            switch (instruments[node]) {
+                case OIS -> {
+                    double fixedRate = quotes[node];
+                    double residual = oisBase.discountFactor(tenor) - 1;
+                    oisBase.addSensitivity(tenor, 1, row);
+                    for (int i = 1; i <= last; i++) {
+                        double accrual = times[i] - times[i - 1];
+                        residual += fixedRate * accrual * oisBase.discountFactor(times[i]);
+                        oisBase.addSensitivity(times[i], fixedRate * accrual, row);
+                    }
+                    return residual;
+                }
+                case BASIS_SWAP -> {
+                    double spread = quotes[node];
+                    double residual = 0;
+                    for (int i = 1; i <= last; i++) {
+                        double accrual = times[i] - times[i - 1];
+                        double discount = oisBase.discountFactor(times[i]);
+                        double previousForecast = forecastBase.discountFactor(times[i - 1]);
+                        double forecast = forecastBase.discountFactor(times[i]);
+                        residual += discount * previousForecast / forecast - oisBase.discountFactor(times[i - 1])
+                                - spread * accrual * discount;
+                        oisBase.addSensitivity(times[i], previousForecast / forecast - spread * accrual, row);
+                        oisBase.addSensitivity(times[i - 1], -1, row);
+                        forecastBase.addSensitivity(times[i - 1], discount / forecast, row);
+                        forecastBase.addSensitivity(times[i], -discount * previousForecast / (forecast * forecast), row);
+                    }
+                    return residual;
+                }
+                case NDF -> {
+                    // priceNdfMultiCurve / spot = P_base / (P_quote P_forecast)
+                    double base = oisBase.discountFactor(tenor);
+                    double quote = oisQuote.discountFactor(tenor);
+                    double forecast = forecastBase.discountFactor(tenor);
+                    double forward = base / (quote * forecast);
+                    oisBase.addSensitivity(tenor, forward / base, row);
+                    oisQuote.addSensitivity(tenor, -forward / quote, row);
+                    forecastBase.addSensitivity(tenor, -forward / forecast, row);
+                    return forward - quotes[node] / spot;
+                }
+                default -> throw new IllegalArgumentException("Unknown instrument: " + instruments[node]);
+            }
+        }
+
+        // Payment times of a swap paying periodsPerYear times a year up to tenor, with a short first period
+        private static double[] schedule(double tenor, int periodsPerYear) {
+            int periods = (int) Math.ceil(tenor * periodsPerYear - 1e-9);
+            double[] times = new double[periods + 1];
+            for (int i = 1; i <= periods; i++) {
+                times[i] = tenor - (double) (periods - i) / periodsPerYear;
+            }
+            return times;
+        }
+
+        // Solves a x = b in place by Gaussian elimination with partial pivoting; b receives x
+        private static void solveLinear(double[][] a, double[] b) {
+            int n = b.length;
+            for (int col = 0; col < n; col++) {
+                int pivot = col;
+                for (int r = col + 1; r < n; r++) {
+                    if (Math.abs(a[r][col]) > Math.abs(a[pivot][col])) {
+                        pivot = r;
+                    }
+                }
+                if (a[pivot][col] == 0) {
+                    throw new IllegalStateException("Singular Jacobian: no quote pins node " + col);
+                }
+                double[] swapRow = a[col];
+                a[col] = a[pivot];
+                a[pivot] = swapRow;
+                double swap = b[col];
+                b[col] = b[pivot];
+                b[pivot] = swap;
+                for (int r = col + 1; r < n; r++) {
+                    double factor = a[r][col] / a[col][col];
+                    for (int c = col; c < n; c++) {
+                        a[r][c] -= factor * a[col][c];
+                    }
+                    b[r] -= factor * b[col];
+                }
+            }
+            for (int r = n - 1; r >= 0; r--) {
+                double sum = b[r];
+                for (int c = r + 1; c < n; c++) {
+                    sum -= a[r][c] * b[c];
+                }
+                b[r] = sum / a[r][r];
+            }
+        }
+
+        // One curve's nodes as a window [offset, offset + times.length) of the shared zeros; the first size
+        // nodes are on the curve, interpolated linearly in zero rate and flat beyond the ends like YieldCurve
+        private class CurveNodes {
+            final int offset;
+            final double[] times;
+            int size;
+
+            CurveNodes(List<MarketQuote> ordered, int from, int to) {
+                this.offset = from;
+                this.times = new double[to - from];
+                for (int k = 0; k < times.length; k++) {
+                    times[k] = ordered.get(from + k).tenorInYears;
+                }
+                this.size = times.length;
+            }
+
+            double discountFactor(double t) {
+                if (t == 0) {
+                    return 1;
+                }
+                int k = segment(t);
+                double w = weight(k, t);
+                double zeroRate = (w == 0) ? zeros[offset + k] : (1 - w) * zeros[offset + k] + w * zeros[offset + k + 1];
+                return Math.exp(-zeroRate * t);
+            }
+
+            // row[node] += coefficient * dP(t)/dz_node
+            void addSensitivity(double t, double coefficient, double[] row) {
+                if (t == 0) {
+                    return;
+                }
+                int k = segment(t);
+                double w = weight(k, t);
+                double dP = -t * discountFactor(t) * coefficient;
+                row[offset + k] += (1 - w) * dP;
+                if (w != 0) {
+                    row[offset + k + 1] += w * dP;
+                }
+            }
+
+            // Node at or left of t, clamped to the nodes on the curve
+            private int segment(double t) {
+                int k = Arrays.binarySearch(times, 0, size, t);
+                if (k >= 0) {
+                    return k;
+                }
+                return Math.max(-k - 2, 0);
+            }
+
+            // Weight of node k + 1 at t, 0 at or beyond the ends
+            private double weight(int k, double t) {
+                if (k + 1 >= size || t <= times[k]) {
+                    return 0;
+                }
+                return (t - times[k]) / (times[k + 1] - times[k]);
+            }
+
+            YieldCurve toYieldCurve() {
+                YieldCurve curve = new YieldCurve();
+                for (int k = 0; k < times.length; k++) {
+                    curve.addNode(times[k], zeros[offset + k]);
+                }
+                return curve;
+            }
+        }
+    }
+
+    // The curves of one build, in the arguments order of priceNdfMultiCurve
+    static class CurveSet {
+        final YieldCurve oisBase;
+        final YieldCurve oisQuote;
+        final YieldCurve forecastBase;
+
+        CurveSet(YieldCurve oisBase, YieldCurve oisQuote, YieldCurve forecastBase) {
+            this.oisBase = oisBase;
+            this.oisQuote = oisQuote;
+            this.forecastBase = forecastBase;
+        }
+
+        double priceNdf(double spot, double tenor) {
+            return priceNdfMultiCurve(spot, tenor, oisBase, oisQuote, forecastBase);
+        }
+    }
 }
@@ -33,6 +33,23 @@ public class NdfSimplePricingCases {
         return forwardRate;
     }
 
+    /**
+     * Forward rate under continuous compounding, F = S * exp((R_quote - R_base) * T). This is the mean
+     * fixing rate of the geometric brownian motion in NdfPricingMC, which uses it as a control variate.
+     * @param spotRate The current spot exchange rate (Base/Quote).
+     * @param rateBase The continuously compounded base currency rate.
+     * @param rateQuote The continuously compounded quote currency rate.
+     * @param timeToMaturity Time to the fixing date in years.
+     * @return The calculated forward rate.
+     */
+    public static double calculateContinuousForwardRate(
+            double spotRate,
+            double rateBase,
+            double rateQuote,
+            double timeToMaturity) {
+        return spotRate * Math.exp((rateQuote - rateBase) * timeToMaturity);
+    }
+
     /**
      * Calculates the cash settlement amount of the NDF at maturity.
      *
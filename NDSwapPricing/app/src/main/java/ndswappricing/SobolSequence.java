@@ -0,0 +1,101 @@
+package ndswappricing;
+
+/*
+* Sobol low-discrepancy points in up to MAX_DIMENSION dimensions, with Joe and Kuo's direction numbers
+* (new-joe-kuo-6, the set commons-math ships). Points are generated in Gray-code order, one XOR per
+* coordinate, and can start at any index, so blocks of a sequence can be generated independently.
+* Each coordinate is XOR-ed with a digital shift before it is mapped into (0, 1); independent random
+* shifts give independent randomised-QMC replicates of the same sequence, whose spread is the standard
+* error of the estimate.
+*/
+public class SobolSequence {
+    public static final int MAX_DIMENSION = 16;
+    private static final int BITS = 32;
+    private static final double SCALE = 1.0 / (1L << BITS);
+
+    // {s, a, m_1 .. m_s} for dimensions 2 .. MAX_DIMENSION: degree and coefficients of the primitive
+    // polynomial and the initial direction numbers
+    private static final int[][] PRIMITIVE_POLYNOMIALS = {
+            {1, 0, 1},
+            {2, 1, 1, 3},
+            {3, 1, 1, 3, 1},
+            {3, 2, 1, 1, 1},
+            {4, 1, 1, 1, 3, 3},
+            {4, 4, 1, 3, 5, 13},
+            {5, 2, 1, 1, 5, 5, 17},
+            {5, 4, 1, 1, 5, 5, 5},
+            {5, 7, 1, 1, 7, 11, 19},
+            {5, 11, 1, 1, 5, 1, 1},
+            {5, 13, 1, 1, 1, 3, 11},
+            {5, 14, 1, 3, 5, 5, 31},
+            {6, 1, 1, 3, 3, 9, 7, 49},
+            {6, 13, 1, 1, 1, 15, 21, 21},
+            {6, 16, 1, 3, 1, 13, 27, 49}};
+
+    private final int dimension;
+    private final long[][] directions; // [coordinate][bit], 32-bit values
+    private final long[] shift;
+    private final long[] current;
+    private long index;
+
+    public SobolSequence(int dimension, long[] shift) {
+        if (dimension < 1 || dimension > MAX_DIMENSION || shift.length != dimension) {
+            throw new IllegalArgumentException("Dimension must be in [1, " + MAX_DIMENSION + "] with one shift each: " + dimension);
+        }
+        this.dimension = dimension;
+        this.shift = shift.clone();
+        this.current = new long[dimension];
+        this.directions = new long[dimension][BITS];
+        for (int bit = 0; bit < BITS; bit++) {
+            directions[0][bit] = 1L << (BITS - 1 - bit);
+        }
+        for (int d = 1; d < dimension; d++) {
+            int[] polynomial = PRIMITIVE_POLYNOMIALS[d - 1];
+            int s = polynomial[0];
+            int a = polynomial[1];
+            long[] v = directions[d];
+            for (int bit = 0; bit < s; bit++) {
+                v[bit] = (long) polynomial[2 + bit] << (BITS - 1 - bit);
+            }
+            for (int bit = s; bit < BITS; bit++) {
+                v[bit] = v[bit - s] ^ (v[bit - s] >>> s);
+                for (int k = 1; k < s; k++) {
+                    if (((a >>> (s - 1 - k)) & 1) != 0) {
+                        v[bit] ^= v[bit - k];
+                    }
+                }
+            }
+        }
+    }
+
+    // Positions the sequence so that the next point returned is point number index (0 is the origin)
+    public void skipTo(long index) {
+        long gray = index ^ (index >>> 1);
+        for (int d = 0; d < dimension; d++) {
+            long x = 0;
+            for (int bit = 0; bit < BITS; bit++) {
+                if (((gray >>> bit) & 1) != 0) {
+                    x ^= directions[d][bit];
+                }
+            }
+            current[d] = x;
+        }
+        this.index = index;
+    }
+
+    // Writes the next point, shifted, into uniforms[0 .. dimension), each strictly inside (0, 1)
+    public void next(double[] uniforms) {
+        for (int d = 0; d < dimension; d++) {
+            uniforms[d] = ((current[d] ^ shift[d]) + 0.5) * SCALE;
+        }
+        int bit = Long.numberOfTrailingZeros(~index); // Gray code: the next point differs in one direction
+        for (int d = 0; d < dimension; d++) {
+            current[d] ^= directions[d][bit];
+        }
+        index++;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+}
@@ -0,0 +1,78 @@
+package ndswappricing;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ForkJoinPool;
+
+import ndswappricing.NdfPricingMC.MonteCarloResult;
+import ndswappricing.NdfPricingMC.Sampling;
+
+class NdfPricingMCTest {
+    private static final double SPOT = 7.15;
+    private static final double RATE = 0.04;
+    private static final double VOLATILITY = 0.08;
+    private static final LocalDate VALUATION = LocalDate.of(2025, 1, 2);
+    private static final LocalDate FIXING = LocalDate.of(2026, 1, 2);
+    private static final double AGREED = 7.30;
+    private static final double NOTIONAL = 1_000_000;
+    private static final int SOBOL_STEPS = 8;
+
+    private static MonteCarloResult price(Sampling sampling, int numPaths, long seed, ForkJoinPool pool) {
+        return NdfPricingMC.priceNdf(SPOT, RATE, VOLATILITY, VALUATION, FIXING, AGREED, NOTIONAL, numPaths, seed,
+                sampling, SOBOL_STEPS, pool);
+    }
+
+    // Streams are split off the seed in block order and the blocks summed in block order, so the pool's size
+    // cannot change the result, to the last bit
+    @Test void sameSeedGivesTheSamePriceOnOneOrEightThreads() {
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool eight = new ForkJoinPool(8);
+        try {
+            for (Sampling sampling : Sampling.values()) {
+                int numPaths = 10 * NdfPricingMC.PATHS_PER_BLOCK + 123; // A partial last block too
+                MonteCarloResult serial = price(sampling, numPaths, 7, one);
+                MonteCarloResult parallel = price(sampling, numPaths, 7, eight);
+                assertEquals(serial.presentValue(), parallel.presentValue(), 0.0, sampling.toString());
+                assertEquals(serial.standardError(), parallel.standardError(), 0.0, sampling.toString());
+                assertEquals(serial.paths(), parallel.paths(), sampling.toString());
+            }
+        } finally {
+            one.shutdown();
+            eight.shutdown();
+        }
+    }
+
+    // Every mode is unbiased: the price lands within a few standard errors of the closed form
+    // (Agreed - S e^{rT}) N e^{-rT}, the forward being the mean of the simulated fixing
+    @Test void everySamplingModeConvergesToTheClosedForm() {
+        double t = (double) ChronoUnit.DAYS.between(VALUATION, FIXING) / 365.0;
+        double closedForm = (AGREED - SPOT * Math.exp(RATE * t)) * NOTIONAL * Math.exp(-RATE * t);
+        for (Sampling sampling : Sampling.values()) {
+            MonteCarloResult result = price(sampling, 1 << 18, 11, ForkJoinPool.commonPool());
+            // CONTROL_VARIATE removes all of the noise from this linear payoff; allow it rounding error only
+            assertEquals(closedForm, result.presentValue(), 4 * result.standardError() + 1e-6, sampling.toString());
+        }
+    }
+
+    // The variance reduction modes must pay for themselves: a smaller standard error for the same path budget
+    @Test void antitheticAndSobolBeatPlainAtTheSamePathCount() {
+        double plain = price(Sampling.PLAIN, 1 << 18, 13, ForkJoinPool.commonPool()).standardError();
+        double antithetic = price(Sampling.ANTITHETIC, 1 << 18, 13, ForkJoinPool.commonPool()).standardError();
+        double sobol = price(Sampling.SOBOL, 1 << 18, 13, ForkJoinPool.commonPool()).standardError();
+        assertTrue(antithetic < plain, antithetic + " vs " + plain);
+        assertTrue(sobol < plain, sobol + " vs " + plain);
+    }
+
+    @Test void sobolRejectsMoreTimeStepsThanItHasDimensions() {
+        assertThrows(IllegalArgumentException.class, () -> NdfPricingMC.priceNdf(SPOT, RATE, VOLATILITY, VALUATION, FIXING,
+                AGREED, NOTIONAL, 1000, 1, Sampling.SOBOL, SobolSequence.MAX_DIMENSION + 1, ForkJoinPool.commonPool()));
+    }
+
+    @Test void nonPositivePathCountIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> price(Sampling.PLAIN, 0, 1, ForkJoinPool.commonPool()));
+        assertThrows(IllegalArgumentException.class, () -> price(Sampling.SOBOL, -1, 1, ForkJoinPool.commonPool()));
+    }
+}
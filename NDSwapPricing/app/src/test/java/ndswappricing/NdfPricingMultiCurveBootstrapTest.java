@@ -0,0 +1,123 @@
+package ndswappricing;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import ndswappricing.NdfPricingMultiCurveBootstrap.CurveBootstrapper;
+import ndswappricing.NdfPricingMultiCurveBootstrap.CurveSet;
+import ndswappricing.NdfPricingMultiCurveBootstrap.Instrument;
+import ndswappricing.NdfPricingMultiCurveBootstrap.MarketQuote;
+
+class NdfPricingMultiCurveBootstrapTest {
+    private static final double SPOT = 7.15;
+    private static final double[] TENORS = {0.25, 0.5, 1.0, 2.0, 3.0, 5.0};
+    private static final double[] NDF_OUTRIGHTS = {7.1200, 7.0900, 7.0300, 6.9200, 6.8200, 6.6200};
+    private static final int FIRST_NDF_NODE = 2 * TENORS.length; // Nodes run OIS, basis swaps, then NDFs
+
+    private static final double[] OIS_RATES = {0.0405, 0.0410, 0.0420, 0.0415, 0.0410, 0.0405};
+    private static final double[] BASIS_SPREADS = {0.0010, 0.0012, 0.0015, 0.0018, 0.0020, 0.0022};
+
+    private static CurveBootstrapper bootstrapper() {
+        MarketQuote[] strip = new MarketQuote[3 * TENORS.length];
+        for (int i = 0; i < TENORS.length; i++) {
+            strip[3 * i] = new MarketQuote(Instrument.OIS, TENORS[i], OIS_RATES[i]);
+            strip[3 * i + 1] = new MarketQuote(Instrument.BASIS_SWAP, TENORS[i], BASIS_SPREADS[i]);
+            strip[3 * i + 2] = new MarketQuote(Instrument.NDF, TENORS[i], NDF_OUTRIGHTS[i]);
+        }
+        return new CurveBootstrapper(SPOT, strip);
+    }
+
+    // 0, then every payment date up to the tenor, counted back from it in steps of 1 / perYear
+    private static double[] paymentTimes(double tenor, int perYear) {
+        int payments = (int) Math.ceil(tenor * perYear - 1e-9);
+        double[] times = new double[payments + 1];
+        for (int j = 0; j < payments; j++) {
+            times[payments - j] = tenor - (double) j / perYear;
+        }
+        return times;
+    }
+
+    private static void assertRepricesNdfQuotes(CurveSet curves) {
+        for (int i = 0; i < TENORS.length; i++) {
+            assertEquals(NDF_OUTRIGHTS[i], curves.priceNdf(SPOT, TENORS[i]), 1e-9, "NDF at " + TENORS[i]);
+        }
+    }
+
+    @Test void bothMethodsRepriceTheNdfQuotes() {
+        for (CurveBootstrapper.Method method : CurveBootstrapper.Method.values()) {
+            assertRepricesNdfQuotes(bootstrapper().build(method));
+        }
+    }
+
+    // Priced from the returned YieldCurves with textbook formulas, not through the bootstrapper's residuals:
+    // the OIS par rate (1 - P(T)) / sum(tau P), and the basis spread as the annuity-weighted gap between the
+    // forecast and OIS forward rates, on the same annual and quarterly schedules with a short first period
+    @Test void bothMethodsRepriceTheOisRatesAndBasisSpreads() {
+        for (CurveBootstrapper.Method method : CurveBootstrapper.Method.values()) {
+            CurveSet curves = bootstrapper().build(method);
+            for (int i = 0; i < TENORS.length; i++) {
+                double[] annual = paymentTimes(TENORS[i], 1);
+                double annuity = 0;
+                for (int j = 1; j < annual.length; j++) {
+                    annuity += (annual[j] - annual[j - 1]) * curves.oisBase.getDiscountFactor(annual[j]);
+                }
+                double parRate = (1 - curves.oisBase.getDiscountFactor(TENORS[i])) / annuity;
+                assertEquals(OIS_RATES[i], parRate, 1e-10, method + " OIS at " + TENORS[i]);
+
+                double[] quarterly = paymentTimes(TENORS[i], 4);
+                double spreadTimesAnnuity = 0;
+                double quarterlyAnnuity = 0;
+                for (int j = 1; j < quarterly.length; j++) {
+                    double accrual = quarterly[j] - quarterly[j - 1];
+                    double discount = curves.oisBase.getDiscountFactor(quarterly[j]);
+                    double forecastForward = (curves.forecastBase.getDiscountFactor(quarterly[j - 1])
+                            / curves.forecastBase.getDiscountFactor(quarterly[j]) - 1) / accrual;
+                    double oisForward = (curves.oisBase.getDiscountFactor(quarterly[j - 1]) / discount - 1) / accrual;
+                    spreadTimesAnnuity += accrual * discount * (forecastForward - oisForward);
+                    quarterlyAnnuity += accrual * discount;
+                }
+                assertEquals(BASIS_SPREADS[i], spreadTimesAnnuity / quarterlyAnnuity, 1e-10, method + " basis at " + TENORS[i]);
+            }
+        }
+    }
+
+    // Away from the solution, so every term is live, each analytic Jacobian row matches central differences
+    // of its residual in every node
+    @Test void analyticJacobianMatchesFiniteDifferences() {
+        CurveBootstrapper bootstrapper = bootstrapper();
+        bootstrapper.build(CurveBootstrapper.Method.GLOBAL_NEWTON);
+        int n = bootstrapper.size();
+        for (int k = 0; k < n; k++) {
+            bootstrapper.zeros[k] += 0.001 * (k % 5 - 2);
+        }
+        double[] analytic = new double[n];
+        double[] ignored = new double[n];
+        double h = 1e-6;
+        for (int node = 0; node < n; node++) {
+            bootstrapper.residual(node, analytic);
+            for (int k = 0; k < n; k++) {
+                double z = bootstrapper.zeros[k];
+                bootstrapper.zeros[k] = z + h;
+                double up = bootstrapper.residual(node, ignored);
+                bootstrapper.zeros[k] = z - h;
+                double down = bootstrapper.residual(node, ignored);
+                bootstrapper.zeros[k] = z;
+                assertEquals((up - down) / (2 * h), analytic[k], 1e-7, "d residual " + node + " / d zero " + k);
+            }
+        }
+    }
+
+    // No curve reprices a negative outright: the solve blows up to NaN, which must fail the build rather than
+    // pass the convergence test, and must not be left in the nodes the next build starts from
+    @Test void failedBuildThrowsAndTheNextBuildRecovers() {
+        for (CurveBootstrapper.Method method : CurveBootstrapper.Method.values()) {
+            CurveBootstrapper bootstrapper = bootstrapper();
+            bootstrapper.build(method);
+            bootstrapper.updateQuote(FIRST_NDF_NODE, -7.0);
+            assertThrows(IllegalStateException.class, () -> bootstrapper.build(method), method.toString());
+            bootstrapper.updateQuote(FIRST_NDF_NODE, NDF_OUTRIGHTS[0]);
+            assertRepricesNdfQuotes(bootstrapper.build(method));
+            assertTrue(bootstrapper.lastMaxResidual <= 1e-12, method.toString());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+// Time and allocation per implied-vol solve for each solver path and region of
+// the surface. Each invocation solves the next quote of the region's grid, so
+// a result is the average over the grid's moneyness, expiry, rate and vol
+// sweep. Iterations and failure rates per region come from SolverReport.
+
+package org.example;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ImpliedVolSolverBenchmark {
+    @Param({"NEWTON", "FD_NEWTON", "BISECTION", "HALLEY"})
+    SolverPath solver;
+
+    @Param({"DEEP_OTM", "OTM", "ATM", "ITM", "DEEP_ITM"})
+    SolverGrid.Moneyness moneyness;
+
+    @Param({"SHORT", "MEDIUM", "LONG"})
+    SolverGrid.Expiry expiry;
+
+    private SolverGrid grid;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        grid = new SolverGrid(moneyness, expiry);
+    }
+
+    @Benchmark
+    public double solve() {
+        int i = next;
+        next = (i + 1 == grid.size()) ? 0 : i + 1;
+        return solver.solve(grid.prices[i], grid.spots[i], grid.strikes[i], grid.rates[i], grid.expiries[i]);
+    }
+}
@@ -0,0 +1,86 @@
+// Compares FastNormal with commons-math's NormalDistribution, both the way the
+// pricers used it (a new NormalDistribution per call) and with one shared
+// instance. Arguments cycle through d1 values typical of a calibration loop,
+// including the tails, so neither implementation is timed on a single branch.
+
+package org.example;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NormalDistributionBenchmark {
+    private final double[] xs = new double[1 << 12];
+    private final double[] ps = new double[1 << 12];
+    private final NormalDistribution shared = new NormalDistribution();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextDouble(-8, 8);
+            ps[i] = FastNormal.cdf(random.nextDouble(-8, 8));
+        }
+    }
+
+    private double x() {
+        return xs[next++ & (xs.length - 1)];
+    }
+
+    private double p() {
+        return ps[next++ & (ps.length - 1)];
+    }
+
+    @Benchmark
+    public double cdfFastNormal() {
+        return FastNormal.cdf(x());
+    }
+
+    @Benchmark
+    public double cdfCommonsMathPerCall() {
+        return new NormalDistribution().cumulativeProbability(x());
+    }
+
+    @Benchmark
+    public double cdfCommonsMathShared() {
+        return shared.cumulativeProbability(x());
+    }
+
+    @Benchmark
+    public double pdfFastNormal() {
+        return FastNormal.pdf(x());
+    }
+
+    @Benchmark
+    public double pdfCommonsMathShared() {
+        return shared.density(x());
+    }
+
+    @Benchmark
+    public double inverseCdfFastNormal() {
+        return FastNormal.inverseCdf(p());
+    }
+
+    @Benchmark
+    public double inverseCdfCommonsMathShared() {
+        return shared.inverseCumulativeProbability(p());
+    }
+
+    // The pricer as a whole, now on FastNormal
+    @Benchmark
+    public double callPrice() {
+        return Main.callPrice(100, 0.2, 100 * Math.exp(0.05 * x()), 0.5, 0.03);
+    }
+}
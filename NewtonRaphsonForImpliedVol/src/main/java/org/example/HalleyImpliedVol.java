@@ -0,0 +1,144 @@
+// Implied volatility of a European call in a handful of Halley steps.
+// The price is normalised as b = C / sqrt(S K e^{-rT}) against the log-moneyness
+// x = ln(S / K e^{-rT}), and an in-the-money call is reflected through put-call
+// parity onto the out-of-the-money call at -x with the same time value, so only
+// x <= 0 is ever solved. The total volatility s = sigma sqrt(T) is then found on
+// one side of the inflexion point s_c = sqrt(2|x|) of b(s):
+//  - below it (cheap, convex prices: deep out of the money or near expiry) the
+//    objective is ln b(s) - ln b, started from the small-s asymptotic
+//    b ~ s^3 / (x^2 sqrt(2 pi)) e^{-x^2 / 2s^2},
+//  - above it (prices near their e^{x/2} ceiling) the objective is ln u(s) - ln u
+//    on the complement u = e^{x/2} - b, evaluated as e^{x/2} N(-d1) + e^{-x/2} N(d2)
+//    so it does not cancel, started from u = 2 cosh(x/2) N(-s/2), which is exact
+//    at the money.
+// Within a factor 20 of the inflexion price the tangent there is the better
+// start on either side.
+// Each step uses vega and volga analytically and stays inside a bracket kept
+// from the signs seen so far, falling back to bisection when a step would leave
+// it, so the iteration cannot diverge and the count is bounded by maxIterations.
+// Not thread-safe: iterations and status describe the last solve, so give each
+// thread its own instance.
+
+package org.example;
+
+public class HalleyImpliedVol {
+    final int maxIterations;
+    int iterations;
+    ImpliedVolBatch.Status status;
+
+    public HalleyImpliedVol(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    // Returns sigma such that callPrice(S, sigma, K, T, r) = C to within tol in sigma, or NaN if status is not CONVERGED
+    public double solve(double C, double S, double K, double r, double T, double tol) {
+        iterations = 0;
+        if (!(S > 0 && K > 0 && T > 0) || Double.isInfinite(S) || Double.isInfinite(K) || Double.isInfinite(T)) {
+            status = ImpliedVolBatch.Status.INVALID_INPUT;
+            return Double.NaN;
+        }
+        double discountedStrike = K * Math.exp(-r * T);
+        if (!(C > Math.max(S - discountedStrike, 0) && C < S)) {
+            status = ImpliedVolBatch.Status.NO_SOLUTION;
+            return Double.NaN;
+        }
+        double x = Math.log(S / discountedStrike);
+        // Time value, which is what pins the vol down; for an in-the-money call it is the out-of-the-money put
+        double timeValue = (x > 0) ? C - (S - discountedStrike) : C;
+        double b = timeValue / Math.sqrt(S * discountedStrike);
+        x = -Math.abs(x);
+        if (!(b > 0)) {
+            status = ImpliedVolBatch.Status.NO_SOLUTION; // Time value lost to rounding
+            return Double.NaN;
+        }
+
+        double sqrtT = Math.sqrt(T);
+        double expHalfX = Math.exp(0.5 * x);
+        double sInflexion = Math.sqrt(-2 * x);
+        double bInflexion = normalisedCall(x, sInflexion, expHalfX);
+        boolean lowerBranch = b < bInflexion;
+        // Tangent at the inflexion point, where d1 = 0 and so vega = e^{x/2} / sqrt(2 pi); by convexity it
+        // overshoots the root on the lower branch and undershoots it on the upper one
+        double sTangent = sInflexion + (b - bInflexion) / (expHalfX * FastNormal.pdf(0));
+        double lo;
+        double hi;
+        double s;
+        if (lowerBranch) {
+            lo = 0;
+            hi = sInflexion;
+            // Two fixed-point passes on ln b = -x^2 / 2s^2 + ln(s^3 / (x^2 sqrt(2 pi)))
+            s = -x / Math.sqrt(-2 * Math.log(b));
+            s = -x / Math.sqrt(-2 * (Math.log(b) + 2 * Math.log(-x) + 0.5 * Math.log(2 * Math.PI) - 3 * Math.log(s)));
+        } else {
+            lo = sInflexion;
+            hi = Double.POSITIVE_INFINITY;
+            s = -2 * FastNormal.inverseCdf((expHalfX - b) / (expHalfX + 1 / expHalfX));
+        }
+        if (sTangent > s && b > 0.05 * bInflexion) {
+            s = sTangent; // Never taken at the money, where the inflexion point is 0 and sTangent is not a number
+        }
+        if (!(s > lo && s < hi)) {
+            s = lowerBranch ? 0.5 * hi : Math.max(2 * lo, 1);
+        }
+
+        // The complement target e^{x/2} - b is (S - C) / sqrt(S K e^{-rT}) on both sides of the money; taken from
+        // S - C, which is exact for a price near S, it keeps its digits where the subtraction would cancel to 0
+        double logTarget = lowerBranch ? Math.log(b) : Math.log((S - C) / Math.sqrt(S * discountedStrike));
+        for (int n = 1; n <= maxIterations; n++) {
+            iterations = n;
+            double d1 = x / s + 0.5 * s;
+            double d2 = d1 - s;
+            double vega = expHalfX * FastNormal.pdf(d1);
+            double volga = vega * d1 * d2 / s;
+            double f;
+            double df;
+            double d2f;
+            if (lowerBranch) {
+                double price = expHalfX * FastNormal.cdf(d1) - FastNormal.cdf(d2) / expHalfX;
+                f = Math.log(price) - logTarget;
+                df = vega / price;
+                d2f = volga / price - df * df;
+            } else {
+                double complement = expHalfX * FastNormal.cdf(-d1) + FastNormal.cdf(d2) / expHalfX;
+                f = Math.log(complement) - logTarget;
+                df = -vega / complement;
+                d2f = -volga / complement - df * df;
+            }
+            double newtonStep = f / df;
+            double next = s - newtonStep / (1 - 0.5 * newtonStep * d2f / df);
+            if (Math.abs(next - s) <= tol * sqrtT) {
+                status = ImpliedVolBatch.Status.CONVERGED;
+                return next / sqrtT;
+            }
+            // The price rises with s, so the sign of f says which side of the root s is on
+            if ((f > 0) == lowerBranch) {
+                hi = s;
+            } else {
+                lo = s;
+            }
+            if (!(next > lo && next < hi)) {
+                next = s - newtonStep; // Halley's correction can overshoot far from the root where Newton alone does not
+            }
+            if (!(next > lo && next < hi)) {
+                next = (hi < Double.POSITIVE_INFINITY) ? 0.5 * (lo + hi) : 2 * s; // Also catches NaN from an underflowed price
+            }
+            s = next;
+        }
+        status = ImpliedVolBatch.Status.MAX_ITERATIONS;
+        return Double.NaN;
+    }
+
+    public int iterations() {
+        return iterations;
+    }
+
+    public ImpliedVolBatch.Status status() {
+        return status;
+    }
+
+    // b(x, s) = e^{x/2} N(x/s + s/2) - e^{-x/2} N(x/s - s/2)
+    private static double normalisedCall(double x, double s, double expHalfX) {
+        double d1 = x / s + 0.5 * s;
+        return expHalfX * FastNormal.cdf(d1) - FastNormal.cdf(d1 - s) / expHalfX;
+    }
+}
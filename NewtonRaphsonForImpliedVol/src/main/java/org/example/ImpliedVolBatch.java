@@ -0,0 +1,112 @@
+// Batch inversion of a whole option chain (strikes x expiries) to implied
+// volatilities. Quotes are held as parallel primitive arrays and solved with
+// HalleyImpliedVol, one solver per thread, with a bounded iteration count and
+// no allocation per quote. Large batches are split across cores with fork-join.
+// Every quote gets a vol, the iterations it took and a status saying whether
+// it converged.
+
+package org.example;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ImpliedVolBatch {
+    public enum Status {
+        CONVERGED,
+        MAX_ITERATIONS,
+        NO_SOLUTION, // price outside the no-arbitrage bounds (S - K e^{-rT})+ < C < S
+        INVALID_INPUT // non-positive or non-finite spot, strike or expiry
+    }
+
+    private static final int SEQUENTIAL_THRESHOLD = 512; // Quotes per fork-join leaf
+
+    final int size;
+    final double[] spots;
+    final double[] strikes;
+    final double[] expiries;
+    final double[] rates;
+    final double[] prices;
+    final double[] vols;
+    final int[] iterations;
+    final Status[] statuses;
+
+    public ImpliedVolBatch(int size) {
+        this.size = size;
+        this.spots = new double[size];
+        this.strikes = new double[size];
+        this.expiries = new double[size];
+        this.rates = new double[size];
+        this.prices = new double[size];
+        this.vols = new double[size];
+        this.iterations = new int[size];
+        this.statuses = new Status[size];
+    }
+
+    public void setQuote(int i, double S, double K, double T, double r, double callPrice) {
+        spots[i] = S;
+        strikes[i] = K;
+        expiries[i] = T;
+        rates[i] = r;
+        prices[i] = callPrice;
+    }
+
+    // Solves every quote on the common fork-join pool
+    public void solve(double tol, int maxIterations) {
+        solve(tol, maxIterations, ForkJoinPool.commonPool());
+    }
+
+    public void solve(double tol, int maxIterations, ForkJoinPool pool) {
+        pool.invoke(new SolveTask(tol, maxIterations, 0, size));
+    }
+
+    // Solves quotes [from, to) on the calling thread
+    public void solveRange(double tol, int maxIterations, int from, int to) {
+        HalleyImpliedVol solver = new HalleyImpliedVol(maxIterations);
+        for (int i = from; i < to; i++) {
+            vols[i] = solver.solve(prices[i], spots[i], strikes[i], rates[i], expiries[i], tol);
+            iterations[i] = solver.iterations();
+            statuses[i] = solver.status();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double vol(int i) {
+        return vols[i];
+    }
+
+    public int iterations(int i) {
+        return iterations[i];
+    }
+
+    public Status status(int i) {
+        return statuses[i];
+    }
+
+    private class SolveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // Never serialised; declared to keep -Xlint:serial quiet
+        private final double tol;
+        private final int maxIterations;
+        private final int from;
+        private final int to;
+
+        SolveTask(double tol, int maxIterations, int from, int to) {
+            this.tol = tol;
+            this.maxIterations = maxIterations;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                solveRange(tol, maxIterations, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SolveTask(tol, maxIterations, from, mid), new SolveTask(tol, maxIterations, mid, to));
+        }
+    }
+}
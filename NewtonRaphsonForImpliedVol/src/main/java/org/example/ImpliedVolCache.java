@@ -0,0 +1,236 @@
+// Bounded cache of implied vols in front of the Newton and bisection solvers,
+// for services that ask for the same quotes many times between ticks.
+// Inputs are quantised to significantBits of mantissa before they form the
+// key, so prices that differ only in the last bits share an entry. Entries live
+// in striped access-ordered LinkedHashMaps, each evicting its own least recently
+// used entry once it holds its share of the capacity; a lookup locks only its
+// stripe, so readers of different quotes do not contend. On a miss the solver
+// can be warm-started from the nearest cached neighbour, taken to be the last
+// vol solved for the same contract (strike, expiry and rate) at any spot and
+// price, which is what changes between ticks. A warm solve that fails falls back
+// to a cold one, and only a finite positive vol is cached as a value or kept as
+// a contract's warm start, so one diverged solve cannot poison later misses.
+
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleUnaryOperator;
+import org.example.rootfinding.NewtonBisectionSolver;
+
+public class ImpliedVolCache {
+    private static final int STRIPES = 16;
+    private static final int MAX_BRACKET_WIDENINGS = 16;
+    private static final int MAX_NEWTON_ITERATIONS = 100;
+
+    // Solves for the vol of a call; initialVol is a warm start, NaN when there is none
+    @FunctionalInterface
+    public interface VolSolver {
+        double solve(double C, double S, double K, double r, double T, double initialVol);
+    }
+
+    // Safeguarded Newton inside a bracket around the start: initialVol when warm, the inflexion point of the
+    // price in vol when cold (0.2 at the money forward, where that is 0). Unlike Main.impliedVolCall it
+    // cannot run off to +-Infinity or cycle; NaN if no bracket around the start holds the root.
+    public static VolSolver newton(double tol) {
+        return (C, S, K, r, T, initialVol) -> {
+            double start = Double.isNaN(initialVol) ? Main.inflexionPoint(S, K, T, r) : initialVol;
+            return bracketedNewton(C, S, K, r, T, tol, (start > 0) ? start : 0.2);
+        };
+    }
+
+    // The call price rises with the vol, so [start / 2, 2 start] is halved and doubled at its ends until the
+    // price crosses C; the bracket stays positive, and the Newton steps stay inside it
+    static double bracketedNewton(double C, double S, double K, double r, double T, double tol, double start) {
+        DoubleUnaryOperator f = vol -> Main.callPrice(S, vol, K, T, r) - C;
+        double lo = 0.5 * start;
+        double hi = 2 * start;
+        for (int n = 0; f.applyAsDouble(lo) > 0; n++) {
+            if (n == MAX_BRACKET_WIDENINGS) {
+                return Double.NaN;
+            }
+            lo *= 0.5;
+        }
+        for (int n = 0; f.applyAsDouble(hi) < 0; n++) {
+            if (n == MAX_BRACKET_WIDENINGS) {
+                return Double.NaN;
+            }
+            hi *= 2;
+        }
+        return new NewtonBisectionSolver(tol, MAX_NEWTON_ITERATIONS).solve(f, vol -> Main.vega(S, vol, K, T, r), lo, hi);
+    }
+
+    public static VolSolver bisection() {
+        return (C, S, K, r, T, initialVol) -> Double.isNaN(initialVol)
+                ? Main.impliedVolBisectionMethod(S, K, T, r, C)
+                : Main.impliedVolBisectionMethod(S, K, T, r, C, initialVol);
+    }
+
+    private final long quantisationMask;
+    private final boolean warmStart;
+    private final Stripe[] quotes;
+    private final Stripe[] contracts; // Keys with spot and price left out
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder warmStarts = new LongAdder();
+
+    // significantBits: mantissa bits kept of each input, 52 for exact keys, 32 for about 2e-10 relative
+    @SuppressWarnings("unchecked")
+    public ImpliedVolCache(int capacity, int significantBits, boolean warmStart) {
+        if (capacity < STRIPES || significantBits < 1 || significantBits > 52) {
+            throw new IllegalArgumentException("Capacity must be at least " + STRIPES + " and significantBits in [1, 52]: "
+                    + capacity + ", " + significantBits);
+        }
+        this.quantisationMask = -1L << (52 - significantBits);
+        this.warmStart = warmStart;
+        this.quotes = new Stripe[STRIPES];
+        this.contracts = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            quotes[i] = new Stripe(capacity / STRIPES);
+            contracts[i] = new Stripe(capacity / STRIPES);
+        }
+    }
+
+    // The cached vol for these inputs, or solver's answer, which is cached (NaN included, so a quote with no
+    // solution is not retried until evicted). Any answer that is not a finite positive vol is returned and
+    // cached as NaN.
+    public double impliedVol(double C, double S, double K, double r, double T, VolSolver solver) {
+        QuoteKey key = new QuoteKey(quantise(C), quantise(S), quantise(K), quantise(r), quantise(T));
+        Stripe stripe = quotes[stripe(key.hashCode())];
+        Double cached;
+        synchronized (stripe) {
+            cached = stripe.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        QuoteKey contract = new QuoteKey(0, 0, key.strike, key.rate, key.expiry);
+        Stripe contractStripe = contracts[stripe(contract.hashCode())];
+        double initialVol = Double.NaN;
+        if (warmStart) {
+            Double neighbour;
+            synchronized (contractStripe) {
+                neighbour = contractStripe.get(contract);
+            }
+            if (neighbour != null) {
+                initialVol = neighbour;
+                warmStarts.increment();
+            }
+        }
+        // Solved outside the lock; two threads missing on the same quote both solve it and store the same answer
+        double vol = solver.solve(C, S, K, r, T, initialVol);
+        if (!isVol(vol) && !Double.isNaN(initialVol)) {
+            vol = solver.solve(C, S, K, r, T, Double.NaN); // The warm start led the solver astray: solve cold
+        }
+        if (!isVol(vol)) {
+            vol = Double.NaN;
+        }
+        synchronized (stripe) {
+            stripe.put(key, vol);
+        }
+        if (isVol(vol)) {
+            synchronized (contractStripe) {
+                contractStripe.put(contract, vol);
+            }
+        }
+        return vol;
+    }
+
+    private static boolean isVol(double vol) {
+        return Double.isFinite(vol) && vol > 0;
+    }
+
+    // Zeroes the low mantissa bits; one input may still land either side of a boundary, costing a miss, not a wrong vol
+    private long quantise(double x) {
+        return Double.doubleToLongBits(x) & quantisationMask;
+    }
+
+    private static int stripe(int hash) {
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    // Misses that were solved from a neighbour's vol
+    public long warmStarts() {
+        return warmStarts.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : quotes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        long hits = hits();
+        long lookups = hits + misses();
+        return String.format("ImpliedVolCache{size=%d, hits=%d, misses=%d, hitRate=%.3f, warmStarts=%d}",
+                size(), hits, misses(), lookups == 0 ? 0.0 : (double) hits / lookups, warmStarts());
+    }
+
+    private static class Stripe extends LinkedHashMap<QuoteKey, Double> {
+        private static final long serialVersionUID = 1L; // Never serialised; declared to keep -Xlint:serial quiet
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true); // Access order, so the eldest entry is the least recently used
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<QuoteKey, Double> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    private static final class QuoteKey {
+        final long price;
+        final long spot;
+        final long strike;
+        final long rate;
+        final long expiry;
+
+        QuoteKey(long price, long spot, long strike, long rate, long expiry) {
+            this.price = price;
+            this.spot = spot;
+            this.strike = strike;
+            this.rate = rate;
+            this.expiry = expiry;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof QuoteKey)) {
+                return false;
+            }
+            QuoteKey other = (QuoteKey) o;
+            return price == other.price && spot == other.spot && strike == other.strike && rate == other.rate
+                    && expiry == other.expiry;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = price;
+            h = h * 31 + spot;
+            h = h * 31 + strike;
+            h = h * 31 + rate;
+            h = h * 31 + expiry;
+            return Long.hashCode(h * 0x9E3779B97F4A7C15L);
+        }
+    }
+}
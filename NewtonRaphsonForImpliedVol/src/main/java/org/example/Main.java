@@ -5,31 +5,29 @@
 
 package org.example;
 
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 import java.util.ArrayList;
-import org.apache.commons.math3.distribution.NormalDistribution;
+import org.example.rootfinding.BisectionSolver;
+import org.example.rootfinding.NewtonSolver;
 
 public class Main {
 
-    public static double newtonStep(Function<Double, Double> f, double x0) {
+    public static double newtonStep(DoubleUnaryOperator f, double x0) {
         double dx = 0.00001;
-        Function<Double, Double> df = (x) -> (f.apply(x + dx) - f.apply(x)) / dx;
-        return x0 - f.apply(x0) / df.apply(x0);
+        double fx = f.applyAsDouble(x0);
+        return x0 - fx * dx / (f.applyAsDouble(x0 + dx) - fx);
     }
 
-    public static double newton(Function<Double, Double> f, double x0, double tol) {
-        while (Math.abs(newtonStep(f, x0) - x0) > tol) {
-            x0 = newtonStep(f, x0);
-        }
-        return x0;
+    // Newton with the same forward difference as newtonStep, two evaluations per iteration; NaN after 100 iterations
+    public static double newton(DoubleUnaryOperator f, double x0, double tol) {
+        return new NewtonSolver(tol, 100, 0.00001).solve(f, x0);
     }
 
     public static double callPrice(double S, double sigma, double K, double T, double r) {
-        NormalDistribution norm = new NormalDistribution();
         double d1 = (Math.log(S / K) + (r + 0.5 * Math.pow(sigma, 2)) * T) / (sigma * Math.sqrt(T));
         double d2 = d1 - sigma * Math.sqrt(T);
-        double n1 = norm.cumulativeProbability(d1);
-        double n2 = norm.cumulativeProbability(d2);
+        double n1 = FastNormal.cdf(d1);
+        double n2 = FastNormal.cdf(d2);
         double DF = Math.exp(-r * T);
         double price = S * n1 - K * DF * n2;
         return price;
@@ -41,14 +39,17 @@ public class Main {
     }
 
     public static double vega(double S, double sigma, double K, double T, double r){
-        NormalDistribution norm = new NormalDistribution();
         double d1 = (Math.log(S / K) + (r + 0.5*Math.pow(sigma, 2)) * T) / (sigma * Math.pow(T, 0.5));
-        double vega = S * Math.pow(T, 0.5) * norm.probability(d1);
+        double vega = S * Math.pow(T, 0.5) * FastNormal.pdf(d1);
         return vega;
     }
 
     public static double impliedVolCall(double C, double S, double K, double r, double T, double tol){
-        double x0 = inflexionPoint(S, K, T, r);
+        return impliedVolCall(C, S, K, r, T, tol, inflexionPoint(S, K, T, r));
+    }
+
+    // Newton from a caller's starting vol, e.g. the last solve of the same contract
+    public static double impliedVolCall(double C, double S, double K, double r, double T, double tol, double x0){
         double p = callPrice(S, x0, K, T, r);
         double v = vega(S, x0, K, T, r);
         while (Math.abs((p - C) / v) > tol){
@@ -59,29 +60,30 @@ public class Main {
         return x0;
     }
 
+    // Fast mode: close initial guess and Halley steps with analytic vega and volga, at most 16 of them; NaN if no vol fits
+    public static double impliedVolCallHalley(double C, double S, double K, double r, double T, double tol) {
+        return new HalleyImpliedVol(16).solve(C, S, K, r, T, tol);
+    }
+
+    // Bisection for the vol in [0.001, 1] to 1e-7, or until the price is within 1e-7; NaN if the price is outside that range
     public static double impliedVolBisectionMethod(double S, double K, double T, double r, double Price) {
         double epsilonAbs = 0.0000001;
         double epsilonStep = 0.0000001;
-        int niter = 0;
         double volLower = 0.001;
         double volUpper = 1;
+        BisectionSolver bisection = new BisectionSolver(epsilonStep, epsilonAbs, 100);
+        return bisection.solve(vol -> callPrice(S, vol, K, T, r) - Price, volLower, volUpper);
+    }
 
-        while ((volUpper - volLower >= epsilonStep ||
-                Math.abs(callPrice(S, volLower, K, T, r) - Price) >= epsilonAbs) &&
-                epsilonAbs <= Math.abs(callPrice(S, volUpper, K, T, r) - Price)) {
-
-            double volMid = (volLower + volUpper) / 2;
-            double priceMid = callPrice(S, volMid, K, T, r);
-            if (Math.abs(priceMid - Price) <= epsilonAbs) {
-                break;
-            } else if ((callPrice(S, volLower, K, T, r) - Price) * (priceMid - Price) < 0) {
-                volUpper = volMid;
-            } else {
-                volLower = volMid;
-            }
-            niter++;
+    // Bisection from a bracket of +-5% around volGuess, widened until it holds the root; far fewer
+    // halvings than from [0.001, 1] when the guess is close
+    public static double impliedVolBisectionMethod(double S, double K, double T, double r, double Price, double volGuess) {
+        BisectionSolver bisection = new BisectionSolver(0.0000001, 0.0000001, 100);
+        DoubleUnaryOperator f = vol -> callPrice(S, vol, K, T, r) - Price;
+        if (!bisection.bracket(f, 0.95 * volGuess, 1.05 * volGuess) || bisection.lower() <= 0) {
+            return impliedVolBisectionMethod(S, K, T, r, Price);
         }
-        return volLower;
+        return bisection.solve(f, bisection.lower(), bisection.upper());
     }
 
     public static void main(String[] args) {
@@ -106,7 +108,7 @@ public class Main {
                 for (double r: rList){
                     System.out.println("Running results for: K = " + K + " vol = " + vol + " r = " + r);
                     double C = callPrice(S, vol, K, T, r); // target price
-                    Function<Double, Double> callPriceVol = (volatility) -> callPrice(S, volatility, K, T, r) - C;
+                    DoubleUnaryOperator callPriceVol = (volatility) -> callPrice(S, volatility, K, T, r) - C;
                     System.out.println(newton(callPriceVol, init, tol));
                     double x0 = init;
                     for (int i = 0; i < 5; i++) {
@@ -117,11 +119,122 @@ public class Main {
                     double I = inflexionPoint(S, K, T, r);
                     System.out.println("Inflexion Point of call option:" + I);
                     double impliedVolx0 = impliedVolCall(C, S, K, r, T, tol);
+                    System.out.println("Implied volatility using Halley iteration: " + impliedVolCallHalley(C, S, K, r, T, tol));
                     double impliedVolBisection = impliedVolBisectionMethod(S, K, T, r, C);
                     System.out.println("Implied volatility using Bisection Method: " + impliedVolBisection);
                     System.out.println("Done with results for: K = " + K + " vol = " + vol + " r = " + r);
                 }
             }
         }
+        solveChain(S, tol);
+        replayTicks(S, tol);
+        streamQuotes(S, tol);
+    }
+
+    // 200k quote ticks over 100 options: the spot wiggles every tick, the vol level drifts and shifts every 5000 ticks.
+    // Re-solving every tick from scratch against the incremental solver that skips moves under 1bp of vol.
+    public static void streamQuotes(double S0, double tol) {
+        int instruments = 100;
+        int tickCount = 200_000;
+        double r = 0.03;
+        double[] strikes = new double[instruments];
+        double[] expiries = new double[instruments];
+        StreamingImpliedVol.QuoteTick[] ticks = new StreamingImpliedVol.QuoteTick[tickCount];
+        double[] trueVols = new double[tickCount];
+        for (int i = 0; i < instruments; i++) {
+            strikes[i] = S0 * (0.8 + 0.004 * i);
+            expiries[i] = 0.25 + 0.02 * i;
+        }
+        double S = S0;
+        double level = 0.2;
+        for (int n = 0; n < tickCount; n++) {
+            S *= 1 + 0.0001 * Math.sin(0.37 * n);
+            level += 2e-7; // A slow drift between the shifts, mostly absorbed by the skip tolerance
+            if (n % 5000 == 0) {
+                level = 0.2 + 0.02 * Math.sin(n);
+            }
+            int i = (n * 7) % instruments;
+            trueVols[n] = level - 0.05 * Math.log(strikes[i] / S0);
+            ticks[n] = new StreamingImpliedVol.QuoteTick(i, S, callPrice(S, trueVols[n], strikes[i], expiries[i], r));
+        }
+
+        long start = System.nanoTime();
+        double[] latest = new double[instruments];
+        for (StreamingImpliedVol.QuoteTick tick : ticks) {
+            latest[tick.instrument] = impliedVolCallHalley(tick.price, tick.spot, strikes[tick.instrument], r, expiries[tick.instrument], tol);
+        }
+        System.out.println("Streamed " + tickCount + " ticks, every tick re-solved: " + (System.nanoTime() - start) / 1000 + " us");
+
+        double skipTol = 1e-4;
+        StreamingImpliedVol stream = new StreamingImpliedVol(instruments, skipTol, tol, (instrument, vol) -> latest[instrument] = vol);
+        for (int i = 0; i < instruments; i++) {
+            stream.register(i, strikes[i], expiries[i], r);
+        }
+        start = System.nanoTime();
+        double maxError = 0;
+        for (int n = 0; n < tickCount; n++) {
+            stream.onQuote(ticks[n].instrument, ticks[n].spot, ticks[n].price);
+            maxError = Math.max(maxError, Math.abs(stream.vol(ticks[n].instrument) - trueVols[n]));
+        }
+        System.out.println("Streamed " + tickCount + " ticks, incrementally: " + (System.nanoTime() - start) / 1000 + " us, "
+                + stream + ", max vol error " + maxError);
+    }
+
+    // 50 spot ticks over 200 contracts, each quote asked for 4 times per tick, through the cache cold and warm-started
+    public static void replayTicks(double S0, double tol) {
+        for (boolean warmStart : new boolean[]{false, true}) {
+            ImpliedVolCache cache = new ImpliedVolCache(4096, 32, warmStart);
+            ImpliedVolCache.VolSolver newton = ImpliedVolCache.newton(tol);
+            double S = S0;
+            long start = System.nanoTime();
+            for (int tick = 0; tick < 50; tick++) {
+                S *= 1 + 0.002 * Math.sin(tick); // A deterministic wiggle in the spot
+                double vol = 0.25 + 0.001 * tick;
+                for (int ask = 0; ask < 4; ask++) {
+                    for (int k = 0; k < 200; k++) {
+                        double K = S0 * (0.7 + 0.003 * k);
+                        double T = 0.25 * (1 + k % 4);
+                        cache.impliedVol(callPrice(S, vol, K, T, 0.03), S, K, 0.03, T, newton);
+                    }
+                }
+            }
+            System.out.println("Cached replay, warm start " + warmStart + ": " + (System.nanoTime() - start) / 1000 + " us, " + cache);
+        }
+    }
+
+    // Inverts a 100 strikes x 100 expiries chain priced off a skewed smile with the batch solver
+    public static void solveChain(double S, double tol) {
+        int strikes = 100;
+        int expiries = 100;
+        double r = 0.03;
+        ImpliedVolBatch batch = new ImpliedVolBatch(strikes * expiries);
+        double[] trueVols = new double[batch.size()];
+        for (int e = 0; e < expiries; e++) {
+            double T = 0.02 + 3.0 * e / expiries;
+            for (int k = 0; k < strikes; k++) {
+                double K = S * (0.6 + 0.8 * k / strikes);
+                int i = e * strikes + k;
+                trueVols[i] = 0.2 - 0.1 * Math.log(K / S) + 0.05 * Math.pow(Math.log(K / S), 2);
+                batch.setQuote(i, S, K, T, r, callPrice(S, trueVols[i], K, T, r));
+            }
+        }
+        long start = System.nanoTime();
+        batch.solve(tol, 50);
+        long elapsed = System.nanoTime() - start;
+        int[] counts = new int[ImpliedVolBatch.Status.values().length];
+        double maxError = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            counts[batch.status(i).ordinal()]++;
+            // A quote with next to no vega (deep in or out of the money near expiry) pins its vol down only loosely
+            double vega = vega(S, trueVols[i], batch.strikes[i], batch.expiries[i], r);
+            if (batch.status(i) == ImpliedVolBatch.Status.CONVERGED && vega > 1e-4) {
+                maxError = Math.max(maxError, Math.abs(batch.vol(i) - trueVols[i]));
+            }
+        }
+        System.out.println("Batch solve of " + batch.size() + " quotes: " + elapsed / 1000 + " us");
+        for (ImpliedVolBatch.Status status : ImpliedVolBatch.Status.values()) {
+            System.out.println("  " + status + ": " + counts[status.ordinal()]);
+        }
+        System.out.println("  max vol error where vega > 1e-4: " + maxError);
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+// Quote grids for comparing the implied-vol solvers region by region. A region
+// is a band of standardised moneyness z = ln(S / K e^{-rT}) / (sigma sqrt(T)),
+// which is what makes a quote easy or hard to invert, crossed with a band of
+// expiries; each grid sweeps z, expiry, rate and vol within its region and
+// prices every quote with Main.callPrice, so the true vol is known.
+
+package org.example;
+
+public class SolverGrid {
+    public enum Moneyness {
+        DEEP_OTM(-4, -2),
+        OTM(-2, -0.5),
+        ATM(-0.5, 0.5),
+        ITM(0.5, 2),
+        DEEP_ITM(2, 4);
+
+        final double minZ;
+        final double maxZ;
+
+        Moneyness(double minZ, double maxZ) {
+            this.minZ = minZ;
+            this.maxZ = maxZ;
+        }
+    }
+
+    public enum Expiry {
+        SHORT(1.0 / 365, 1.0 / 12),
+        MEDIUM(0.25, 1),
+        LONG(2, 10);
+
+        final double minT;
+        final double maxT;
+
+        Expiry(double minT, double maxT) {
+            this.minT = minT;
+            this.maxT = maxT;
+        }
+    }
+
+    private static final int Z_STEPS = 9;
+    private static final int T_STEPS = 3;
+    private static final double[] RATES = {0, 0.03, 0.08};
+    private static final double[] VOLS = {0.05, 0.1, 0.2, 0.4, 0.8};
+
+    final Moneyness moneyness;
+    final Expiry expiry;
+    final int size;
+    final double[] spots;
+    final double[] strikes;
+    final double[] expiries;
+    final double[] rates;
+    final double[] vols;
+    final double[] prices;
+
+    public SolverGrid(Moneyness moneyness, Expiry expiry) {
+        this.moneyness = moneyness;
+        this.expiry = expiry;
+        this.size = Z_STEPS * T_STEPS * RATES.length * VOLS.length;
+        this.spots = new double[size];
+        this.strikes = new double[size];
+        this.expiries = new double[size];
+        this.rates = new double[size];
+        this.vols = new double[size];
+        this.prices = new double[size];
+        int i = 0;
+        for (int z = 0; z < Z_STEPS; z++) {
+            double standardised = moneyness.minZ + (moneyness.maxZ - moneyness.minZ) * z / (Z_STEPS - 1);
+            for (int t = 0; t < T_STEPS; t++) {
+                double T = expiry.minT * Math.pow(expiry.maxT / expiry.minT, (double) t / (T_STEPS - 1));
+                for (double r : RATES) {
+                    for (double vol : VOLS) {
+                        double S = 100;
+                        spots[i] = S;
+                        strikes[i] = S * Math.exp(r * T - standardised * vol * Math.sqrt(T));
+                        expiries[i] = T;
+                        rates[i] = r;
+                        vols[i] = vol;
+                        prices[i] = Main.callPrice(S, vol, strikes[i], T, r);
+                        i++;
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return moneyness + "/" + expiry;
+    }
+}
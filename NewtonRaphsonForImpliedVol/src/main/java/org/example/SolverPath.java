@@ -0,0 +1,83 @@
+// The implied-vol paths in this module, as the benchmark and the convergence
+// report call them. solve goes through the public entry point in Main, so it
+// is timed with whatever it allocates. iterations replays the same iteration
+// through the rootfinding solvers (or reads HalleyImpliedVol's own count),
+// since the Main methods do not report how many steps they took.
+
+package org.example;
+
+import java.util.function.DoubleUnaryOperator;
+import org.example.rootfinding.BisectionSolver;
+import org.example.rootfinding.NewtonSolver;
+
+public enum SolverPath {
+    // Main.impliedVolCall: Newton with analytic vega from the inflexion point
+    NEWTON {
+        @Override
+        public double solve(double C, double S, double K, double r, double T) {
+            return Main.impliedVolCall(C, S, K, r, T, TOL);
+        }
+
+        @Override
+        public int iterations(double C, double S, double K, double r, double T) {
+            NewtonSolver newton = new NewtonSolver(TOL, MAX_ITERATIONS);
+            newton.solve(priceError(C, S, K, r, T), vol -> Main.vega(S, vol, K, T, r), Main.inflexionPoint(S, K, T, r));
+            return newton.converged() ? newton.iterations() : -1;
+        }
+    },
+    // Main.newton: Newton with a forward-difference derivative, started from 0.1 as Main.main does
+    FD_NEWTON {
+        @Override
+        public double solve(double C, double S, double K, double r, double T) {
+            return Main.newton(priceError(C, S, K, r, T), 0.1, TOL);
+        }
+
+        @Override
+        public int iterations(double C, double S, double K, double r, double T) {
+            NewtonSolver newton = new NewtonSolver(TOL, 100, 0.00001);
+            newton.solve(priceError(C, S, K, r, T), 0.1);
+            return newton.converged() ? newton.iterations() : -1;
+        }
+    },
+    // Main.impliedVolBisectionMethod on [0.001, 1]
+    BISECTION {
+        @Override
+        public double solve(double C, double S, double K, double r, double T) {
+            return Main.impliedVolBisectionMethod(S, K, T, r, C);
+        }
+
+        @Override
+        public int iterations(double C, double S, double K, double r, double T) {
+            BisectionSolver bisection = new BisectionSolver(0.0000001, 0.0000001, 100);
+            bisection.solve(priceError(C, S, K, r, T), 0.001, 1);
+            return bisection.converged() ? bisection.iterations() : -1;
+        }
+    },
+    // Main.impliedVolCallHalley
+    HALLEY {
+        @Override
+        public double solve(double C, double S, double K, double r, double T) {
+            return Main.impliedVolCallHalley(C, S, K, r, T, TOL);
+        }
+
+        @Override
+        public int iterations(double C, double S, double K, double r, double T) {
+            HalleyImpliedVol halley = new HalleyImpliedVol(16);
+            halley.solve(C, S, K, r, T, TOL);
+            return (halley.status() == ImpliedVolBatch.Status.CONVERGED) ? halley.iterations() : -1;
+        }
+    };
+
+    static final double TOL = 1e-8;
+    // Cap for counting NEWTON's iterations; Main.impliedVolCall itself has none
+    static final int MAX_ITERATIONS = 1000;
+
+    public abstract double solve(double C, double S, double K, double r, double T);
+
+    // Iterations to tolerance, or -1 if the solver gives up or hits its cap
+    public abstract int iterations(double C, double S, double K, double r, double T);
+
+    static DoubleUnaryOperator priceError(double C, double S, double K, double r, double T) {
+        return vol -> Main.callPrice(S, vol, K, T, r) - C;
+    }
+}
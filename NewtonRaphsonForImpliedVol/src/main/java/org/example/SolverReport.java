@@ -0,0 +1,100 @@
+// Convergence profile of the implied-vol solvers over the SolverGrid regions:
+// for every moneyness band, expiry band and solver path, the time per solve,
+// the bytes allocated per solve, the mean and worst iterations to tolerance,
+// the share of quotes for which no vol came back (failed) and the share for
+// which one came back more than 1e-4 away from the true vol (off, mostly quotes
+// whose price barely depends on the vol). The table is printed and written to
+// build/solver-report/solvers.txt; the JMH ImpliedVolSolverBenchmark gives the
+// timings with proper statistics. Run with gradle solverReport.
+
+package org.example;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class SolverReport {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int TIMED_ROUNDS = 10;
+    private static final double MAX_VOL_ERROR = 1e-4;
+
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "build/solver-report");
+        SolverGrid[] grids = new SolverGrid[SolverGrid.Moneyness.values().length * SolverGrid.Expiry.values().length];
+        int g = 0;
+        for (SolverGrid.Moneyness moneyness : SolverGrid.Moneyness.values()) {
+            for (SolverGrid.Expiry expiry : SolverGrid.Expiry.values()) {
+                grids[g++] = new SolverGrid(moneyness, expiry);
+            }
+        }
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (SolverGrid grid : grids) {
+                for (SolverPath path : SolverPath.values()) {
+                    solveAll(grid, path);
+                }
+            }
+        }
+        Files.createDirectories(output);
+        Path file = output.resolve("solvers.txt");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            String header = String.format("%-18s %-10s %10s %10s %8s %6s %8s %8s", "region", "solver", "ns/solve", "B/solve",
+                    "mean it", "max it", "failed", "off");
+            System.out.println(header);
+            out.println(header);
+            for (SolverGrid grid : grids) {
+                for (SolverPath path : SolverPath.values()) {
+                    String row = profile(grid, path);
+                    System.out.println(row);
+                    out.println(row);
+                }
+            }
+        }
+        System.out.println("Report written to " + file);
+    }
+
+    private static String profile(SolverGrid grid, SolverPath path) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int round = 0; round < TIMED_ROUNDS; round++) {
+            solveAll(grid, path);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        long solves = (long) TIMED_ROUNDS * grid.size();
+
+        int failed = 0;
+        int off = 0;
+        long iterationSum = 0;
+        int counted = 0;
+        int maxIterations = 0;
+        for (int i = 0; i < grid.size(); i++) {
+            double vol = path.solve(grid.prices[i], grid.spots[i], grid.strikes[i], grid.rates[i], grid.expiries[i]);
+            if (!Double.isFinite(vol)) {
+                failed++;
+            } else if (Math.abs(vol - grid.vols[i]) > MAX_VOL_ERROR) {
+                off++;
+            }
+            int iterations = path.iterations(grid.prices[i], grid.spots[i], grid.strikes[i], grid.rates[i], grid.expiries[i]);
+            if (iterations >= 0) {
+                iterationSum += iterations;
+                counted++;
+                maxIterations = Math.max(maxIterations, iterations);
+            }
+        }
+        return String.format("%-18s %-10s %10.0f %10.1f %8.1f %6d %7.1f%% %7.1f%%", grid, path, (double) elapsed / solves,
+                (double) allocated / solves, counted == 0 ? 0.0 : (double) iterationSum / counted, maxIterations,
+                100.0 * failed / grid.size(), 100.0 * off / grid.size());
+    }
+
+    private static double solveAll(SolverGrid grid, SolverPath path) {
+        double sum = 0;
+        for (int i = 0; i < grid.size(); i++) {
+            sum += path.solve(grid.prices[i], grid.spots[i], grid.strikes[i], grid.rates[i], grid.expiries[i]);
+        }
+        return sum;
+    }
+}
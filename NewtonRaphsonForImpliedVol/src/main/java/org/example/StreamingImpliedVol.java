@@ -0,0 +1,167 @@
+// Incremental implied vols for a stream of option quote ticks. Each instrument
+// keeps the state of its last solve: the vol, and the price, spot, delta, gamma
+// and vega it was solved at. A tick first predicts how far the vol would move,
+// (dC - delta dS - gamma dS^2 / 2) / vega, at no pricing cost; if that is
+// within skipTol the tick is absorbed and nothing is published. Otherwise the
+// vol is re-solved with Newton from the last vol plus the predicted move, which
+// is usually one or two steps away, falling back to HalleyImpliedVol from
+// scratch if that does not converge. The prediction is always measured from the
+// last solve, not the last tick, so skipped ticks cannot drift. Recompute cost
+// follows the size of the market move instead of the quote rate.
+// Instrument state is held in primitive arrays indexed by instrument id. Not
+// thread-safe: one thread consumes the stream.
+
+package org.example;
+
+import java.util.stream.Stream;
+
+public class StreamingImpliedVol {
+    private static final int MAX_WARM_ITERATIONS = 8;
+
+    // Receives each recomputed vol; NaN when the quote admits none
+    @FunctionalInterface
+    public interface VolListener {
+        void onVol(int instrument, double vol);
+    }
+
+    public static class QuoteTick {
+        final int instrument;
+        final double spot;
+        final double price;
+
+        public QuoteTick(int instrument, double spot, double price) {
+            this.instrument = instrument;
+            this.spot = spot;
+            this.price = price;
+        }
+    }
+
+    final double skipTol;
+    final double tol;
+    final VolListener listener;
+    final HalleyImpliedVol fallback = new HalleyImpliedVol(16);
+
+    final double[] strikes;
+    final double[] expiries;
+    final double[] rates;
+    final boolean[] solved;
+    final double[] vols;
+    final double[] solvedPrices;
+    final double[] solvedSpots;
+    final double[] deltas;
+    final double[] gammas;
+    final double[] vegas;
+
+    long ticks;
+    long skipped;
+    long warmSolves;
+    long fullSolves;
+    long iterations;
+
+    // skipTol: vol move, in vol units, below which a tick is not re-solved; tol: solve tolerance in vol
+    public StreamingImpliedVol(int instruments, double skipTol, double tol, VolListener listener) {
+        this.skipTol = skipTol;
+        this.tol = tol;
+        this.listener = listener;
+        this.strikes = new double[instruments];
+        this.expiries = new double[instruments];
+        this.rates = new double[instruments];
+        this.solved = new boolean[instruments];
+        this.vols = new double[instruments];
+        this.solvedPrices = new double[instruments];
+        this.solvedSpots = new double[instruments];
+        this.deltas = new double[instruments];
+        this.gammas = new double[instruments];
+        this.vegas = new double[instruments];
+    }
+
+    public void register(int instrument, double strike, double expiry, double rate) {
+        strikes[instrument] = strike;
+        expiries[instrument] = expiry;
+        rates[instrument] = rate;
+        solved[instrument] = false;
+    }
+
+    // E.g. as time passes; the next tick is solved from scratch
+    public void setExpiry(int instrument, double expiry) {
+        expiries[instrument] = expiry;
+        solved[instrument] = false;
+    }
+
+    public void consume(Stream<QuoteTick> quotes) {
+        quotes.forEach(quote -> onQuote(quote.instrument, quote.spot, quote.price));
+    }
+
+    public void onQuote(int instrument, double S, double C) {
+        ticks++;
+        double vol = Double.NaN;
+        if (solved[instrument]) {
+            double dS = S - solvedSpots[instrument];
+            double move = (C - solvedPrices[instrument] - deltas[instrument] * dS - 0.5 * gammas[instrument] * dS * dS)
+                    / vegas[instrument];
+            if (Math.abs(move) <= skipTol) {
+                skipped++;
+                return;
+            }
+            vol = warmSolve(instrument, S, C, vols[instrument] + move);
+        }
+        if (!(vol > 0)) {
+            fullSolves++;
+            vol = fallback.solve(C, S, strikes[instrument], rates[instrument], expiries[instrument], tol);
+            iterations += fallback.iterations();
+        }
+        if (vol > 0) {
+            remember(instrument, S, C, vol);
+        } else {
+            solved[instrument] = false;
+        }
+        listener.onVol(instrument, vol);
+    }
+
+    // Bounded Newton with analytic vega from the predicted vol; NaN if it does not converge
+    private double warmSolve(int instrument, double S, double C, double sigma) {
+        warmSolves++;
+        double K = strikes[instrument];
+        double T = expiries[instrument];
+        double discountedStrike = K * Math.exp(-rates[instrument] * T);
+        double logMoneyness = Math.log(S / discountedStrike);
+        double sqrtT = Math.sqrt(T);
+        for (int n = 1; n <= MAX_WARM_ITERATIONS && sigma > 0; n++) {
+            iterations++;
+            double sigmaSqrtT = sigma * sqrtT;
+            double d1 = logMoneyness / sigmaSqrtT + 0.5 * sigmaSqrtT;
+            double price = S * FastNormal.cdf(d1) - discountedStrike * FastNormal.cdf(d1 - sigmaSqrtT);
+            double step = (price - C) / (S * sqrtT * FastNormal.pdf(d1));
+            sigma -= step;
+            if (Math.abs(step) <= tol) {
+                return sigma;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private void remember(int instrument, double S, double C, double vol) {
+        double T = expiries[instrument];
+        double sqrtT = Math.sqrt(T);
+        double discountedStrike = strikes[instrument] * Math.exp(-rates[instrument] * T);
+        double d1 = Math.log(S / discountedStrike) / (vol * sqrtT) + 0.5 * vol * sqrtT;
+        double density = FastNormal.pdf(d1);
+        solved[instrument] = true;
+        vols[instrument] = vol;
+        solvedPrices[instrument] = C;
+        solvedSpots[instrument] = S;
+        deltas[instrument] = FastNormal.cdf(d1);
+        gammas[instrument] = density / (S * vol * sqrtT);
+        vegas[instrument] = S * sqrtT * density;
+    }
+
+    public double vol(int instrument) {
+        return solved[instrument] ? vols[instrument] : Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StreamingImpliedVol{ticks=%d, skipped=%d, warmSolves=%d, fullSolves=%d, iterations=%d}",
+                ticks, skipped, warmSolves, fullSolves, iterations);
+    }
+}
@@ -0,0 +1,50 @@
+// Bisection on a sign-changing bracket: one evaluation per iteration and
+// guaranteed to converge, but only linearly. Stops when the bracket is within
+// tol or |f| at the midpoint is within functionTol.
+
+package org.example.rootfinding;
+
+import java.util.function.DoubleUnaryOperator;
+
+public class BisectionSolver extends RootFinder {
+    final double functionTol;
+
+    public BisectionSolver(double tol, int maxIterations) {
+        this(tol, 0, maxIterations);
+    }
+
+    public BisectionSolver(double tol, double functionTol, int maxIterations) {
+        super(tol, maxIterations);
+        this.functionTol = functionTol;
+    }
+
+    public double solve(DoubleUnaryOperator f, double lo, double hi) {
+        reset();
+        double fLo = evaluate(f, lo);
+        double fHi = evaluate(f, hi);
+        if (fLo == 0) {
+            return converged(lo);
+        }
+        if (fHi == 0) {
+            return converged(hi);
+        }
+        if (fLo * fHi > 0) {
+            return failed(); // Not a bracket
+        }
+        while (iterations < maxIterations) {
+            iterations++;
+            double mid = 0.5 * (lo + hi);
+            double fMid = evaluate(f, mid);
+            if (Math.abs(fMid) <= functionTol || 0.5 * Math.abs(hi - lo) <= tol) {
+                return converged(mid);
+            }
+            if (fLo * fMid < 0) {
+                hi = mid;
+            } else {
+                lo = mid;
+                fLo = fMid;
+            }
+        }
+        return failed();
+    }
+}
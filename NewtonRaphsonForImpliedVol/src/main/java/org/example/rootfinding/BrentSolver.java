@@ -0,0 +1,87 @@
+// Brent's method on a sign-changing bracket: inverse quadratic interpolation or
+// the secant step when they make progress, bisection when they do not. Needs no
+// derivative, one evaluation per iteration, and converges wherever bisection
+// does, superlinearly on smooth functions.
+
+package org.example.rootfinding;
+
+import java.util.function.DoubleUnaryOperator;
+
+public class BrentSolver extends RootFinder {
+    private static final double EPSILON = Math.ulp(1.0);
+
+    public BrentSolver(double tol, int maxIterations) {
+        super(tol, maxIterations);
+    }
+
+    public double solve(DoubleUnaryOperator f, double lo, double hi) {
+        reset();
+        double a = lo;
+        double b = hi;
+        double fa = evaluate(f, a);
+        double fb = evaluate(f, b);
+        if (fa * fb > 0) {
+            return failed();
+        }
+        // b is the best estimate, a the previous one, c the contrapoint with f(c) of opposite sign to f(b)
+        double c = b;
+        double fc = fb;
+        double d = b - a;
+        double e = d;
+        while (iterations < maxIterations) {
+            iterations++;
+            if ((fb > 0 && fc > 0) || (fb < 0 && fc < 0)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tol1 = 2 * EPSILON * Math.abs(b) + 0.5 * tol;
+            double mid = 0.5 * (c - b);
+            if (Math.abs(mid) <= tol1 || fb == 0) {
+                return converged(b);
+            }
+            if (Math.abs(e) >= tol1 && Math.abs(fa) > Math.abs(fb)) {
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * mid * s; // Secant
+                    q = 1 - s;
+                } else {
+                    q = fa / fc; // Inverse quadratic interpolation
+                    double r = fb / fc;
+                    p = s * (2 * mid * q * (q - r) - (b - a) * (r - 1));
+                    q = (q - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                }
+                p = Math.abs(p);
+                if (2 * p < Math.min(3 * mid * q - Math.abs(tol1 * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = mid;
+                    e = d;
+                }
+            } else {
+                d = mid;
+                e = d;
+            }
+            a = b;
+            fa = fb;
+            b += (Math.abs(d) > tol1) ? d : Math.copySign(tol1, mid);
+            fb = evaluate(f, b);
+        }
+        return failed();
+    }
+}
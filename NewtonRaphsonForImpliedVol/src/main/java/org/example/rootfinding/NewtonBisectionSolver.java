@@ -0,0 +1,66 @@
+// Safeguarded Newton on a sign-changing bracket: takes the Newton step when it
+// lands inside the bracket and shrinks it faster than bisection would, and
+// bisects otherwise. The bracket shrinks every iteration, so it converges
+// wherever bisection does, quadratically once Newton takes over.
+
+package org.example.rootfinding;
+
+import java.util.function.DoubleUnaryOperator;
+
+public class NewtonBisectionSolver extends RootFinder {
+    public NewtonBisectionSolver(double tol, int maxIterations) {
+        super(tol, maxIterations);
+    }
+
+    public double solve(DoubleUnaryOperator f, DoubleUnaryOperator df, double lo, double hi) {
+        reset();
+        double fLo = evaluate(f, lo);
+        double fHi = evaluate(f, hi);
+        if (fLo == 0) {
+            return converged(lo);
+        }
+        if (fHi == 0) {
+            return converged(hi);
+        }
+        if (fLo * fHi > 0) {
+            return failed();
+        }
+        if (fLo > 0) { // Orient so that f(lo) < 0 < f(hi)
+            double t = lo;
+            lo = hi;
+            hi = t;
+        }
+        double x = 0.5 * (lo + hi);
+        double lastStep = Math.abs(hi - lo);
+        double step = lastStep;
+        double fx = evaluate(f, x);
+        double dfx = evaluate(df, x);
+        while (iterations < maxIterations) {
+            iterations++;
+            boolean outside = ((x - hi) * dfx - fx) * ((x - lo) * dfx - fx) > 0;
+            if (outside || Math.abs(2 * fx) > Math.abs(lastStep * dfx)) {
+                lastStep = step;
+                step = 0.5 * (hi - lo);
+                x = lo + step;
+            } else {
+                lastStep = step;
+                step = fx / dfx;
+                x -= step;
+            }
+            if (Math.abs(step) <= tol) {
+                return converged(x);
+            }
+            fx = evaluate(f, x);
+            dfx = evaluate(df, x);
+            if (fx == 0) {
+                return converged(x);
+            }
+            if (fx < 0) {
+                lo = x;
+            } else {
+                hi = x;
+            }
+        }
+        return failed();
+    }
+}
@@ -0,0 +1,56 @@
+// Newton's method from a starting point, with an analytic derivative or a
+// forward difference (one extra evaluation per step). Fast near a simple root
+// but unsafeguarded: use NewtonBisectionSolver when a bracket is known.
+
+package org.example.rootfinding;
+
+import java.util.function.DoubleUnaryOperator;
+
+public class NewtonSolver extends RootFinder {
+    final double bump;
+
+    public NewtonSolver(double tol, int maxIterations) {
+        this(tol, maxIterations, 1e-5);
+    }
+
+    // bump: step of the forward difference used when no derivative is given
+    public NewtonSolver(double tol, int maxIterations, double bump) {
+        super(tol, maxIterations);
+        this.bump = bump;
+    }
+
+    public double solve(DoubleUnaryOperator f, DoubleUnaryOperator df, double x0) {
+        reset();
+        double x = x0;
+        while (iterations < maxIterations) {
+            iterations++;
+            double step = evaluate(f, x) / evaluate(df, x);
+            x -= step;
+            if (Math.abs(step) <= tol) {
+                return converged(x);
+            }
+            if (!Double.isFinite(x)) {
+                return failed();
+            }
+        }
+        return failed();
+    }
+
+    public double solve(DoubleUnaryOperator f, double x0) {
+        reset();
+        double x = x0;
+        while (iterations < maxIterations) {
+            iterations++;
+            double fx = evaluate(f, x);
+            double step = fx * bump / (evaluate(f, x + bump) - fx);
+            x -= step;
+            if (Math.abs(step) <= tol) {
+                return converged(x);
+            }
+            if (!Double.isFinite(x)) {
+                return failed();
+            }
+        }
+        return failed();
+    }
+}
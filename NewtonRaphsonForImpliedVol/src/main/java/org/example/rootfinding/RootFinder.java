@@ -0,0 +1,96 @@
+// Common state of the root finders in this package. Functions are primitive
+// DoubleUnaryOperators, so nothing is boxed per evaluation. Every solver has an
+// absolute tolerance on x and an iteration cap, and after each call records the
+// iterations and evaluations (of the function and of its derivative, where one
+// is given) it used and whether it converged; a
+// solve that does not converge returns NaN. Solvers are not thread-safe: give
+// each thread its own instance.
+
+package org.example.rootfinding;
+
+import java.util.function.DoubleUnaryOperator;
+
+public abstract class RootFinder {
+    private static final double BRACKET_GROWTH = 1.6;
+
+    final double tol;
+    final int maxIterations;
+    int iterations;
+    int evaluations;
+    boolean converged;
+    double lower;
+    double upper;
+
+    protected RootFinder(double tol, int maxIterations) {
+        if (!(tol > 0) || maxIterations <= 0) {
+            throw new IllegalArgumentException("Tolerance and iteration cap must be positive: " + tol + ", " + maxIterations);
+        }
+        this.tol = tol;
+        this.maxIterations = maxIterations;
+    }
+
+    // Widens [lo, hi] geometrically, away from the end with the smaller |f|, until f changes sign across it;
+    // the bracket found is left in lower() and upper(). Returns false if maxIterations widenings do not find one.
+    public boolean bracket(DoubleUnaryOperator f, double lo, double hi) {
+        reset();
+        if (!(lo < hi)) {
+            throw new IllegalArgumentException("Empty interval: [" + lo + ", " + hi + "]");
+        }
+        double fLo = evaluate(f, lo);
+        double fHi = evaluate(f, hi);
+        for (int n = 0; n < maxIterations && fLo * fHi > 0; n++) {
+            iterations++;
+            if (Math.abs(fLo) < Math.abs(fHi)) {
+                lo += BRACKET_GROWTH * (lo - hi);
+                fLo = evaluate(f, lo);
+            } else {
+                hi += BRACKET_GROWTH * (hi - lo);
+                fHi = evaluate(f, hi);
+            }
+        }
+        lower = lo;
+        upper = hi;
+        return fLo * fHi <= 0;
+    }
+
+    final double evaluate(DoubleUnaryOperator f, double x) {
+        evaluations++;
+        return f.applyAsDouble(x);
+    }
+
+    final void reset() {
+        iterations = 0;
+        evaluations = 0;
+        converged = false;
+    }
+
+    final double converged(double root) {
+        converged = true;
+        return root;
+    }
+
+    final double failed() {
+        converged = false;
+        return Double.NaN;
+    }
+
+    public int iterations() {
+        return iterations;
+    }
+
+    public int evaluations() {
+        return evaluations;
+    }
+
+    public boolean converged() {
+        return converged;
+    }
+
+    public double lower() {
+        return lower;
+    }
+
+    public double upper() {
+        return upper;
+    }
+}
@@ -0,0 +1,44 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class HalleyImpliedVolTest {
+    private static final double S = 100;
+
+    // A 30y quote at 400% vol prices within ulps of S, where e^{x/2} - b used to cancel to 0 and leave
+    // the upper branch with a log target of -Infinity and nothing but bisection steps
+    @Test
+    void longDatedHighVolQuoteConverges() {
+        double T = 30, vol = 4, z = 2.75, r = 0.03;
+        double K = S * Math.exp(r * T + z * vol * Math.sqrt(T));
+        double C = Main.callPrice(S, vol, K, T, r);
+        HalleyImpliedVol halley = new HalleyImpliedVol(16);
+        double solved = halley.solve(C, S, K, r, T, 1e-10);
+        assertEquals(ImpliedVolBatch.Status.CONVERGED, halley.status());
+        assertEquals(C, Main.callPrice(S, solved, K, T, r), 1e-12 * S);
+    }
+
+    @Test
+    void convergesAcrossExpiriesVolsAndMoneyness() {
+        SplittableRandom random = new SplittableRandom(5);
+        HalleyImpliedVol halley = new HalleyImpliedVol(16);
+        for (int i = 0; i < 50_000; i++) {
+            double T = Math.exp(Math.log(1 / 365.0) + random.nextDouble() * Math.log(30 * 365.0));
+            double vol = Math.exp(Math.log(0.01) + random.nextDouble() * Math.log(400));
+            double z = 6 * random.nextDouble() - 3;
+            double r = 0.1 * random.nextDouble();
+            double K = S * Math.exp(r * T + z * vol * Math.sqrt(T));
+            double C = Main.callPrice(S, vol, K, T, r);
+            if (!(C > Math.max(S - K * Math.exp(-r * T), 0) && C < S)) {
+                continue; // No vol fits a price rounded onto a bound
+            }
+            double solved = halley.solve(C, S, K, r, T, 1e-10);
+            assertEquals(ImpliedVolBatch.Status.CONVERGED, halley.status(), "T=" + T + " vol=" + vol + " z=" + z);
+            assertTrue(Math.abs(Main.callPrice(S, solved, K, T, r) - C) <= 1e-12 * S);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class ImpliedVolBatchTest {
+    private static final double S = 100;
+    private static final double TOL = 1e-10;
+    private static final int MAX_ITERATIONS = 16;
+
+    // A chain large enough to be split across fork-join leaves gives every quote exactly the vol, iteration
+    // count and status of solving it alone
+    @Test
+    void batchMatchesSolvingEachQuoteAlone() {
+        double[] expiries = {1 / 52.0, 0.25, 0.5, 1, 2, 5, 10};
+        int strikes = 200;
+        ImpliedVolBatch batch = new ImpliedVolBatch(expiries.length * strikes);
+        for (int e = 0; e < expiries.length; e++) {
+            for (int k = 0; k < strikes; k++) {
+                double K = 50 + k * 0.5;
+                double vol = 0.1 + 0.3 * k / strikes + 0.05 * e;
+                batch.setQuote(e * strikes + k, S, K, expiries[e], 0.03, Main.callPrice(S, vol, K, expiries[e], 0.03));
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            batch.solve(TOL, MAX_ITERATIONS, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        HalleyImpliedVol single = new HalleyImpliedVol(MAX_ITERATIONS);
+        int converged = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            double vol = single.solve(batch.prices[i], batch.spots[i], batch.strikes[i], batch.rates[i], batch.expiries[i], TOL);
+            assertEquals(single.status(), batch.status(i), "quote " + i);
+            assertEquals(single.iterations(), batch.iterations(i), "quote " + i);
+            assertEquals(vol, batch.vol(i), 0, "quote " + i);
+            if (batch.status(i) == ImpliedVolBatch.Status.CONVERGED) {
+                converged++;
+            } else {
+                // Only deep in-the-money short-dated quotes, whose price rounds onto S - K e^{-rT}
+                double intrinsic = S - batch.strikes[i] * Math.exp(-batch.rates[i] * batch.expiries[i]);
+                assertEquals(ImpliedVolBatch.Status.NO_SOLUTION, batch.status(i), "quote " + i);
+                assertTrue(batch.prices[i] <= intrinsic, "quote " + i);
+            }
+        }
+        assertTrue(converged > 0.9 * batch.size(), converged + " of " + batch.size() + " converged");
+    }
+
+    // Quotes no vol can fit are flagged with their reason and a NaN vol, without disturbing their neighbours
+    @Test
+    void unsolvableQuotesGetTheirStatus() {
+        double K = 100, T = 0.5, r = 0.03;
+        double fair = Main.callPrice(S, 0.2, K, T, r);
+        ImpliedVolBatch batch = new ImpliedVolBatch(8);
+        batch.setQuote(0, S, K, T, r, fair);
+        batch.setQuote(1, S, K, T, r, S + 1); // Above the spot
+        batch.setQuote(2, S, 50, T, r, 40); // Below the intrinsic value S - K e^{-rT}
+        batch.setQuote(3, S, K, T, r, 0); // No time value out of the money
+        batch.setQuote(4, -S, K, T, r, fair);
+        batch.setQuote(5, S, K, 0, r, fair);
+        batch.setQuote(6, S, Double.NaN, T, r, fair);
+        batch.setQuote(7, S, K, Double.POSITIVE_INFINITY, r, fair);
+        batch.solve(TOL, MAX_ITERATIONS);
+
+        assertEquals(ImpliedVolBatch.Status.CONVERGED, batch.status(0));
+        assertEquals(0.2, batch.vol(0), 1e-9);
+        ImpliedVolBatch.Status[] expected = {
+                ImpliedVolBatch.Status.CONVERGED,
+                ImpliedVolBatch.Status.NO_SOLUTION,
+                ImpliedVolBatch.Status.NO_SOLUTION,
+                ImpliedVolBatch.Status.NO_SOLUTION,
+                ImpliedVolBatch.Status.INVALID_INPUT,
+                ImpliedVolBatch.Status.INVALID_INPUT,
+                ImpliedVolBatch.Status.INVALID_INPUT,
+                ImpliedVolBatch.Status.INVALID_INPUT};
+        for (int i = 1; i < expected.length; i++) {
+            assertEquals(expected[i], batch.status(i), "quote " + i);
+            assertTrue(Double.isNaN(batch.vol(i)), "quote " + i);
+            assertEquals(0, batch.iterations(i), "quote " + i);
+        }
+
+        // With no iterations allowed a solvable quote runs out of them
+        batch.solve(TOL, 0);
+        assertEquals(ImpliedVolBatch.Status.MAX_ITERATIONS, batch.status(0));
+        assertTrue(Double.isNaN(batch.vol(0)));
+    }
+}
@@ -0,0 +1,63 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class ImpliedVolCacheTest {
+    private static final double TOL = 1e-8;
+    private static final double S = 100;
+    private static final double K = 64.82;
+    private static final double T = 0.1355;
+    private static final double R = 0.03;
+
+    // Plain Newton (Main.impliedVolCall) from 0.232 overshoots to a negative vol here and returns +Infinity,
+    // which used to be cached and kept as the contract's warm start, so every later miss on the contract
+    // returned Infinity
+    @Test
+    void divergingWarmStartDoesNotPoisonTheContract() {
+        ImpliedVolCache cache = new ImpliedVolCache(1024, 52, true);
+        ImpliedVolCache.VolSolver newton = ImpliedVolCache.newton(TOL);
+        assertEquals(0.232, cache.impliedVol(Main.callPrice(S, 0.232, K, T, R), S, K, R, T, newton), 1e-6);
+        for (double vol : new double[]{0.33, 0.34, 0.35, 0.33}) {
+            double solved = cache.impliedVol(Main.callPrice(S, vol, K, T, R), S, K, R, T, newton);
+            assertEquals(vol, solved, 1e-6);
+        }
+        assertEquals(3, cache.warmStarts()); // The second 0.33 quote is a hit
+    }
+
+    @Test
+    void newtonConvergesColdAndFromHalfToTwiceTheVol() {
+        ImpliedVolCache.VolSolver newton = ImpliedVolCache.newton(TOL);
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 20_000; i++) {
+            double strike = S * (0.5 + random.nextDouble());
+            double expiry = 0.02 + 2 * random.nextDouble();
+            double rate = 0.05 * random.nextDouble();
+            double vol = 0.05 + 0.8 * random.nextDouble();
+            double initialVol = vol * Math.pow(2, 2 * random.nextDouble() - 1);
+            double C = Main.callPrice(S, vol, strike, expiry, rate);
+            double vega = Main.vega(S, vol, strike, expiry, rate);
+            if (vega < 1e-3) {
+                continue; // The price pins the vol down only loosely
+            }
+            double warm = newton.solve(C, S, strike, rate, expiry, initialVol);
+            assertTrue(Math.abs(warm - vol) < 1e-6, "vol " + vol + " from " + initialVol + " solved as " + warm);
+            double cold = newton.solve(C, S, strike, rate, expiry, Double.NaN);
+            assertTrue(Math.abs(cold - vol) < 1e-6, "vol " + vol + " solved cold as " + cold);
+        }
+    }
+
+    @Test
+    void quoteWithNoSolutionIsCachedAsNaNAndNotSeeded() {
+        ImpliedVolCache cache = new ImpliedVolCache(1024, 52, true);
+        ImpliedVolCache.VolSolver newton = ImpliedVolCache.newton(TOL);
+        double belowIntrinsic = 0.9 * (S - K * Math.exp(-R * T));
+        assertTrue(Double.isNaN(cache.impliedVol(belowIntrinsic, S, K, R, T, newton)));
+        assertEquals(0, cache.warmStarts());
+        assertEquals(0.3, cache.impliedVol(Main.callPrice(S, 0.3, K, T, R), S, K, R, T, newton), 1e-6);
+        assertEquals(0, cache.warmStarts());
+    }
+}
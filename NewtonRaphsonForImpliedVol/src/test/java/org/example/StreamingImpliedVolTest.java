@@ -0,0 +1,71 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StreamingImpliedVolTest {
+    private static final double K = 100;
+    private static final double T = 0.5;
+    private static final double R = 0.02;
+    private static final double SKIP_TOL = 1e-3;
+
+    private final List<Double> published = new ArrayList<>();
+    private final StreamingImpliedVol stream = new StreamingImpliedVol(1, SKIP_TOL, 1e-12, (instrument, vol) -> published.add(vol));
+
+    private void tick(double S, double vol) {
+        stream.onQuote(0, S, Main.callPrice(S, vol, K, T, R));
+    }
+
+    // A tick whose predicted vol move is inside skipTol publishes nothing and keeps the last solve; a large
+    // move is re-solved warm, from the prediction, to the true vol
+    @Test
+    void smallTicksAreSkippedAndLargeMovesResolveToTheTrueVol() {
+        stream.register(0, K, T, R);
+        tick(100, 0.20);
+        assertEquals(1, published.size());
+        assertEquals(0.20, published.get(0), 1e-9);
+
+        tick(100.05, 0.2004);
+        assertEquals(1, published.size(), "inside skipTol");
+        assertEquals(published.get(0), stream.vol(0), 0);
+        assertEquals(1, stream.skipped);
+
+        tick(104, 0.26);
+        assertEquals(2, published.size());
+        assertEquals(0.26, published.get(1), 1e-9);
+        assertEquals(0.26, stream.vol(0), 1e-9);
+        assertEquals(1, stream.warmSolves);
+        assertEquals(1, stream.fullSolves); // Only the first tick
+    }
+
+    // Each tick alone is inside skipTol, but the prediction is measured from the last solve, so once their sum
+    // leaves it the vol is re-solved instead of drifting
+    @Test
+    void skippedTicksDoNotDrift() {
+        stream.register(0, K, T, R);
+        tick(100, 0.20);
+        tick(100, 0.2006);
+        assertEquals(1, published.size(), "the first creep is inside skipTol");
+        assertEquals(1, stream.skipped);
+        tick(100, 0.2012);
+        assertEquals(2, published.size(), "both creeps together are not");
+        assertEquals(0.2012, published.get(1), 1e-9);
+    }
+
+    // A quote no vol can fit publishes NaN and the next tick is solved from scratch
+    @Test
+    void unsolvableQuotePublishesNaN() {
+        stream.register(0, K, T, R);
+        tick(100, 0.20);
+        stream.onQuote(0, 100, 101); // Above the spot
+        assertTrue(Double.isNaN(published.get(1)));
+        assertTrue(Double.isNaN(stream.vol(0)));
+        tick(100, 0.25);
+        assertEquals(0.25, published.get(2), 1e-9);
+        assertEquals(3, stream.fullSolves);
+    }
+}
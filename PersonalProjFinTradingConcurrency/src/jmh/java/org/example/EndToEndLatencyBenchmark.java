@@ -0,0 +1,102 @@
+package org.example;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/*
+* Submit-to-fill latency through the real intake and engine thread. Each operation submits a resting sell
+* and a buy that crosses it, then spins until the engine reports the fill. Background producers (all but
+* one of `producers`) keep submitting add/cancel pairs far from the touch, paced at one pair per
+* BACKGROUND_PAUSE_NANOS each, so the measured hand-off competes with realistic intake contention rather
+* than with a permanently full queue.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EndToEndLatencyBenchmark {
+    private static final String SYMBOL = "GBPUSD";
+    private static final long MID = 127_000;
+    private static final long BACKGROUND_PAUSE_NANOS = 20_000;
+
+    @Param({"1", "2", "4", "8"})
+    int producers;
+
+    @Param({"RING_BUFFER", "BLOCKING_QUEUE"})
+    String intake;
+
+    @Param({"0", "256"}) // 0 runs the engine one message at a time, otherwise the batch mode limit
+    int maxBatch;
+
+    private MatchingEngine engine;
+    private Thread engineThread;
+    private Thread[] background;
+    private volatile boolean running;
+    private volatile long lastFilledTaker;
+    private long nextProbeId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OrderIntake orderIntake = intake.equals("RING_BUFFER")
+                ? new RingBufferIntake(1 << 16, WaitStrategy.YIELDING)
+                : new BlockingQueueIntake();
+        ExecutionListener listener = (takerOrderId, makerOrderId, takerSide, price, quantity) -> lastFilledTaker = takerOrderId;
+        engine = new MatchingEngine(orderIntake, listener, new Instrument(SYMBOL, new BigDecimal("0.00001"), Instrument.BookType.PRICE_LADDER));
+        if (maxBatch > 0) {
+            engine.enableBatching(maxBatch);
+        }
+        engineThread = new Thread(engine, "matching-engine");
+        engineThread.start();
+
+        running = true;
+        background = new Thread[producers - 1];
+        for (int p = 0; p < background.length; p++) {
+            long idBase = (long) (p + 1) << 40; // Disjoint id ranges per producer
+            background[p] = new Thread(() -> {
+                long id = idBase;
+                while (running) {
+                    long price = MID - 1_000 - ThreadLocalRandom.current().nextInt(100);
+                    engine.submitOrder(++id, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, price, 10);
+                    engine.cancelOrder(id, SYMBOL);
+                    LockSupport.parkNanos(BACKGROUND_PAUSE_NANOS);
+                }
+            }, "background-producer-" + p);
+            background[p].start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        for (Thread thread : background) {
+            thread.join();
+        }
+        engine.stop();
+        engineThread.interrupt();
+        engineThread.join();
+    }
+
+    @Benchmark
+    public long submitToFill() {
+        long makerId = ++nextProbeId;
+        long takerId = ++nextProbeId;
+        engine.submitOrder(makerId, SYMBOL, Order.Side.SELL, Order.Type.LIMIT, MID, 1);
+        engine.submitOrder(takerId, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, 1);
+        int attempt = 0;
+        while (lastFilledTaker != takerId) {
+            WaitStrategy.YIELDING.idle(attempt++); // Yields once past the spin budget, for hosts with fewer cores than threads
+        }
+        return takerId;
+    }
+}
@@ -0,0 +1,139 @@
+package org.example;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+* Journal append throughput with group commit, and recovery time per million messages, both by full
+* replay and from a snapshot taken at 90% of the journal. The message mix is a random walk of limit orders
+* with a cancel for most of them, close to the engine's normal load.
+*/
+public class JournalBenchmark {
+    static final Instrument INSTRUMENT = new Instrument("GBPUSD", new BigDecimal("0.00001"), Instrument.BookType.PRICE_LADDER);
+    static final int RECOVERY_MESSAGES = 1_000_000;
+
+    // Deterministic message stream: roughly one new order for every nine cancels of a recent order
+    static final class MessageSource {
+        private final Random random = new Random(42);
+        private long mid = 127_000;
+        private long next;
+
+        void next(OrderCommand command) {
+            long i = next++;
+            if (i > 0 && random.nextInt(10) < 9) {
+                command.set(OrderCommand.Kind.CANCEL, i - 1 - random.nextInt((int) Math.min(i, 64)), INSTRUMENT.symbol, null, null, 0, 0);
+            } else {
+                mid += random.nextInt(5) - 2;
+                Order.Side side = random.nextBoolean() ? Order.Side.BUY : Order.Side.SELL;
+                long price = (side == Order.Side.BUY) ? mid - random.nextInt(20) : mid + random.nextInt(20);
+                command.set(OrderCommand.Kind.NEW, i, INSTRUMENT.symbol, side, Order.Type.LIMIT, price, 1 + random.nextInt(100));
+            }
+        }
+    }
+
+    // A fresh journal per iteration keeps the file (and the disk it lives on) bounded
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public static class Append {
+        @Param({"16", "256", "4096"})
+        int groupSize;
+
+        private Path dir;
+        private Journal journal;
+        private final OrderCommand command = new OrderCommand();
+        private final MessageSource source = new MessageSource();
+
+        @Setup(Level.Iteration)
+        public void open() throws IOException {
+            dir = Files.createTempDirectory("journal-append");
+            journal = Journal.open(dir.resolve("engine.journal"), groupSize);
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() throws IOException {
+            journal.close();
+            deleteRecursively(dir);
+        }
+
+        @Benchmark
+        public long append() {
+            source.next(command);
+            return journal.append(command);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public static class Recovery {
+        private Path dir;
+        private Path journalFile;
+        private Path snapshotFile;
+
+        @Setup(Level.Trial)
+        public void writeJournal() throws IOException {
+            dir = Files.createTempDirectory("journal-recovery");
+            journalFile = dir.resolve("engine.journal");
+            snapshotFile = dir.resolve("engine.snapshot");
+            OrderCommand command = new OrderCommand();
+            MessageSource source = new MessageSource();
+            MatchingEngine engine = new MatchingEngine(INSTRUMENT);
+            try (Journal journal = Journal.open(journalFile, 4096)) {
+                for (int i = 0; i < RECOVERY_MESSAGES; i++) {
+                    source.next(command);
+                    journal.append(command);
+                    engine.apply(command);
+                    if (i + 1 == RECOVERY_MESSAGES * 9 / 10) {
+                        engine.snapshotTo(snapshotFile, journal.lastSequence());
+                    }
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            deleteRecursively(dir);
+        }
+
+        @Benchmark
+        public long fullReplay() throws IOException {
+            return new MatchingEngine(INSTRUMENT).recover(journalFile, dir.resolve("no.snapshot"));
+        }
+
+        @Benchmark
+        public long snapshotPlusTail() throws IOException {
+            return new MatchingEngine(INSTRUMENT).recover(journalFile, snapshotFile);
+        }
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+* Single-threaded cost of the engine's book operations, driven through MatchingEngine.apply so the
+* timing includes dispatch, matching and the id map but no intake hand-off. The book is prefilled with
+* `depth` levels per side, ORDERS_PER_LEVEL orders each, and every operation leaves it as it found it.
+* Each operation is two messages, so per-order figures (including gc.alloc.rate.norm) are half of those
+* reported.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderBookBenchmark {
+    private static final String SYMBOL = "GBPUSD";
+    private static final long MID = 127_000;
+    private static final int ORDERS_PER_LEVEL = 4;
+    private static final long ORDER_SIZE = 10;
+
+    @Param({"TREE_MAP", "PRICE_LADDER"})
+    Instrument.BookType bookType;
+
+    @Param({"10", "100", "1000"})
+    int depth;
+
+    private MatchingEngine engine;
+    private final OrderCommand command = new OrderCommand();
+    private long nextId;
+    private int nextLevel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new MatchingEngine(new Instrument(SYMBOL, new BigDecimal("0.00001"), bookType));
+        for (int level = 1; level <= depth; level++) {
+            for (int i = 0; i < ORDERS_PER_LEVEL; i++) {
+                apply(OrderCommand.Kind.NEW, ++nextId, Order.Side.BUY, MID - level, ORDER_SIZE);
+                apply(OrderCommand.Kind.NEW, ++nextId, Order.Side.SELL, MID + level, ORDER_SIZE);
+            }
+        }
+    }
+
+    // Rests a passive order at a level cycling through the whole bid side, then cancels it
+    @Benchmark
+    public void addCancel() {
+        long id = ++nextId;
+        long price = MID - 1 - (nextLevel++ % depth);
+        apply(OrderCommand.Kind.NEW, id, Order.Side.BUY, price, ORDER_SIZE);
+        apply(OrderCommand.Kind.CANCEL, id, null, 0, 0);
+    }
+
+    // Takes the oldest order at the best ask in full, then replenishes the level at the back of its queue
+    @Benchmark
+    public void match() {
+        apply(OrderCommand.Kind.NEW, ++nextId, Order.Side.BUY, MID + 1, ORDER_SIZE);
+        apply(OrderCommand.Kind.NEW, ++nextId, Order.Side.SELL, MID + 1, ORDER_SIZE);
+    }
+
+    private void apply(OrderCommand.Kind kind, long id, Order.Side side, long price, long quantity) {
+        command.set(kind, id, SYMBOL, side, Order.Type.LIMIT, price, quantity);
+        engine.apply(command);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+* Cost of the pre-trade risk stage for one new order: account and symbol lookups, the size, band, notional
+* and rate checks. Orders are spread over `accounts` accounts so the lookups miss the cache the way a busy
+* engine would, and every order passes, which is the common and most expensive path.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RiskCheckBenchmark {
+    private static final String[] SYMBOLS = {"GBPUSD", "EURUSD", "USDJPY", "AUDUSD"};
+
+    @Param({"10", "10000"})
+    int accounts;
+
+    private RiskCheck risk;
+    private final OrderCommand[] commands = new OrderCommand[1 << 14];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        risk = new RiskCheck(new RiskLimits(1_000_000, Long.MAX_VALUE, Integer.MAX_VALUE));
+        for (String symbol : SYMBOLS) {
+            risk.symbolLimits(symbol, 1_000_000, 1_000);
+            risk.traded(symbol, 100_000);
+        }
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = new OrderCommand();
+            commands[i].set(OrderCommand.Kind.NEW, i, random.nextInt(accounts), SYMBOLS[random.nextInt(SYMBOLS.length)],
+                    Order.Side.BUY, Order.Type.LIMIT, 100_000 - random.nextInt(100), 1 + random.nextInt(100));
+        }
+        for (OrderCommand command : commands) {
+            risk.check(command, null, System.nanoTime()); // Creates every account's state up front
+        }
+    }
+
+    @Benchmark
+    public RiskCheck.Reject checkNewOrder() {
+        OrderCommand command = commands[next++ & (commands.length - 1)];
+        return risk.check(command, null, System.nanoTime());
+    }
+}
@@ -0,0 +1,56 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+* Distribution of MatchingEngine batch sizes in power-of-two buckets: bucket 0 counts batches of one
+* message, bucket b counts sizes in [2^b, 2^(b+1)). Recorded by the engine thread alone, so each update is
+* a plain read plus an ordered write; any thread may read it.
+*/
+public class BatchSizeHistogram {
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong messages = new AtomicLong(); // Sum of all recorded batch sizes
+
+    void record(int batchSize) {
+        int bucket = 31 - Integer.numberOfLeadingZeros(batchSize);
+        counts.lazySet(bucket, counts.get(bucket) + 1);
+        messages.lazySet(messages.get() + batchSize);
+    }
+
+    public long batches() {
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            total += counts.get(b);
+        }
+        return total;
+    }
+
+    public long messages() {
+        return messages.get();
+    }
+
+    // Batches whose size lies in [2^bucket, 2^(bucket+1))
+    public long count(int bucket) {
+        return counts.get(bucket);
+    }
+
+    public double mean() {
+        long batches = batches();
+        return batches == 0 ? 0 : (double) messages() / batches;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("Batches{count=%d, mean=%.1f", batches(), mean()));
+        for (int b = 0; b < BUCKETS; b++) {
+            long count = counts.get(b);
+            if (count > 0) {
+                sb.append(", ").append(1L << b).append('+').append('=').append(count);
+            }
+        }
+        return sb.append('}').toString();
+    }
+}
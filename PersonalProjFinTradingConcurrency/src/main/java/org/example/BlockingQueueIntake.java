@@ -0,0 +1,68 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/*
+* The original intake: an unbounded LinkedBlockingQueue. Every submission allocates a fresh command and a
+* queue node, and each hand-off takes the queue's lock. Kept as a baseline to compare RingBufferIntake with.
+*/
+public class BlockingQueueIntake implements OrderIntake {
+    private final BlockingQueue<OrderCommand> orderQueue = new LinkedBlockingQueue<>();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final List<OrderCommand> batch = new ArrayList<>(); // Engine thread only, reused by drain()
+
+    @Override
+    public OrderCommand claim() {
+        claimed.incrementAndGet();
+        return new OrderCommand();
+    }
+
+    @Override
+    public void publish(OrderCommand command) {
+        try {
+            orderQueue.put(command); // Thread-safe submission
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public OrderCommand take() throws InterruptedException {
+        return orderQueue.take(); // Blocking wait for new orders
+    }
+
+    @Override
+    public void release(OrderCommand command) {
+        // Nothing to recycle: the command becomes garbage once the engine has copied it
+        released.lazySet(released.get() + 1);
+    }
+
+    @Override
+    public int drain(Consumer<OrderCommand> handler, int maxBatch) throws InterruptedException {
+        batch.add(orderQueue.take());
+        orderQueue.drainTo(batch, maxBatch - 1); // One lock acquisition for the rest of the burst
+        int count = batch.size();
+        for (int i = 0; i < count; i++) {
+            handler.accept(batch.get(i));
+        }
+        batch.clear();
+        released.lazySet(released.get() + count);
+        return count;
+    }
+
+    @Override
+    public long claimedCount() {
+        return claimed.get();
+    }
+
+    @Override
+    public long releasedCount() {
+        return released.get();
+    }
+}
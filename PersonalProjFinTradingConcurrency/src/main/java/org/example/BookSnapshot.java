@@ -0,0 +1,108 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/*
+* Point-in-time copy of every resting order, tagged with the sequence of the last journal record applied
+* before it was taken. Recovery loads the latest snapshot and replays only the journal records after that
+* sequence, so restart time is bounded by the snapshot interval rather than the journal's length. Orders
+* are written per side in priority order, so re-adding them in file order restores time priority. The magic
+* is followed by a layout version; a snapshot in another layout is refused, and since the journal holds
+* every message, deleting it lets recover() rebuild the books from the journal alone.
+*/
+public class BookSnapshot {
+    private static final int MAGIC = 0x424f4f4b; // "BOOK"
+    private static final int VERSION = 2; // Version 1 had no version field and no account ids
+
+    // Writes to a temporary file, forces it to disk and only then moves it into place, so a crash never leaves
+    // a partial snapshot: without the force the rename could reach the disk before the data it names
+    public static void write(Path file, long sequence, Map<String, OrderBook> books) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeInt(books.size());
+            for (Map.Entry<String, OrderBook> entry : books.entrySet()) {
+                out.writeUTF(entry.getKey());
+                try {
+                    entry.getValue().forEachOrder(order -> writeOrder(out, order));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                out.writeBoolean(false);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(file.toAbsolutePath().getParent());
+    }
+
+    // Makes the rename itself durable. Not every platform can open a directory (Windows cannot), and there
+    // the move is as durable as the file system makes it
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort, see above
+        }
+    }
+
+    private static void writeOrder(DataOutputStream out, Order order) {
+        try {
+            out.writeBoolean(true);
+            out.writeLong(order.id);
+            out.writeLong(order.accountId);
+            out.writeByte(order.side.ordinal());
+            out.writeLong(order.price);
+            out.writeLong(order.quantity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Adds the snapshot's orders to the given (empty) books and returns the journal sequence it covers
+    public static long read(Path file, Map<String, OrderBook> books) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a book snapshot: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Book snapshot " + file + " has unsupported version " + version);
+            }
+            long sequence = in.readLong();
+            int bookCount = in.readInt();
+            for (int i = 0; i < bookCount; i++) {
+                String symbol = in.readUTF();
+                OrderBook book = books.get(symbol);
+                if (book == null) {
+                    throw new IOException("Snapshot holds orders for unknown symbol " + symbol);
+                }
+                while (in.readBoolean()) {
+                    long id = in.readLong();
+                    long accountId = in.readLong();
+                    Order.Side side = Order.Side.values()[in.readByte()];
+                    long price = in.readLong();
+                    long quantity = in.readLong();
+                    book.addOrder(new Order().set(id, accountId, symbol, side, Order.Type.LIMIT, price, quantity));
+                }
+            }
+            return sequence;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.example;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+* Front door for client sessions in front of a ShardedMatchingEngine. There is no dispatcher thread:
+* each ClientSession's own thread validates and numbers its orders and writes them straight into the
+* owning shard's intake, so thousands of virtual-thread sessions funnel into the single engine thread per
+* shard. Order ids carry the session id in their upper 32 bits, which is how each shard's engine thread
+* routes execution reports back to the right session without a lookup table or a lock. The gateway only
+* validates field by field; per-account limits are enforced behind it by each shard's RiskCheck, see
+* ShardedMatchingEngine.enableRiskChecks, and their rejects come back to the session as REJECTED reports.
+*/
+public class ClientGateway {
+    private final ShardedMatchingEngine engine;
+    private final Set<String> symbols = new HashSet<>(); // Read-only after construction
+    private final long maxOrderQuantity;
+    private final AtomicReferenceArray<ClientSession> sessions; // Indexed by session id
+    private final AtomicInteger nextSessionId = new AtomicInteger();
+
+    public ClientGateway(int shardCount, int maxSessions, long maxOrderQuantity, Instrument... instruments) {
+        this.engine = new ShardedMatchingEngine(shardCount, shard -> new ReportRouter(), instruments);
+        for (Instrument instrument : instruments) {
+            symbols.add(instrument.symbol);
+        }
+        this.maxOrderQuantity = maxOrderQuantity;
+        this.sessions = new AtomicReferenceArray<>(maxSessions);
+    }
+
+    // A session trading on its own account, numbered like the session
+    public ClientSession openSession() {
+        return openSession(-1);
+    }
+
+    public ClientSession openSession(long accountId) {
+        int id = nextSessionId.getAndIncrement();
+        if (id >= sessions.length()) {
+            throw new IllegalStateException("Session limit reached: " + sessions.length());
+        }
+        ClientSession session = new ClientSession(this, id, accountId < 0 ? id : accountId);
+        sessions.set(id, session);
+        return session;
+    }
+
+    // Reports for the session's orders are dropped from now on; its resting orders stay in the book
+    public void closeSession(ClientSession session) {
+        sessions.set(session.id, null);
+    }
+
+    // Called on the session's thread; returns the rejection reason, or null if the order may be sent
+    String validate(String symbol, Order.Side side, Order.Type type, long priceTicks, long quantity) {
+        if (!symbols.contains(symbol)) {
+            return "Unknown symbol";
+        }
+        if (side == null || type == null) {
+            return "Missing side or type";
+        }
+        return validateTerms(type, priceTicks, quantity);
+    }
+
+    // As validate() for a replace of an order the session owns: the engine keeps the resting order's symbol
+    // and side and re-enters it as a limit order, so only the new price and size need checking
+    String validateReplace(long priceTicks, long quantity) {
+        return validateTerms(Order.Type.LIMIT, priceTicks, quantity);
+    }
+
+    private String validateTerms(Order.Type type, long priceTicks, long quantity) {
+        if (quantity <= 0 || quantity > maxOrderQuantity) {
+            return "Quantity outside 1.." + maxOrderQuantity;
+        }
+        if (type == Order.Type.LIMIT && priceTicks <= 0) {
+            return "Limit price must be positive";
+        }
+        return null;
+    }
+
+    boolean isKnownSymbol(String symbol) {
+        return symbols.contains(symbol);
+    }
+
+    public ShardedMatchingEngine engine() {
+        return engine;
+    }
+
+    public void start() {
+        engine.start();
+    }
+
+    public void stop() throws InterruptedException {
+        engine.stop();
+    }
+
+    private void deliver(long orderId, ExecutionReport.Kind kind, long price, long quantity, String reason) {
+        ClientSession session = sessions.get((int) (orderId >>> 32));
+        if (session != null) {
+            session.deliver(new ExecutionReport(kind, orderId, price, quantity, reason));
+        }
+    }
+
+    // Runs on a shard's engine thread: every callback only enqueues, so the matcher never waits on a session
+    private class ReportRouter implements ExecutionListener {
+        @Override
+        public void onAccepted(long orderId) {
+            deliver(orderId, ExecutionReport.Kind.ACCEPTED, 0, 0, null);
+        }
+
+        @Override
+        public void onTrade(long takerOrderId, long makerOrderId, Order.Side takerSide, long price, long quantity) {
+            deliver(takerOrderId, ExecutionReport.Kind.FILLED, price, quantity, null);
+            deliver(makerOrderId, ExecutionReport.Kind.FILLED, price, quantity, null);
+        }
+
+        @Override
+        public void onCancelled(long orderId, long cancelledQuantity, long remainingQuantity) {
+            deliver(orderId, ExecutionReport.Kind.CANCELLED, 0, cancelledQuantity, null);
+        }
+
+        @Override
+        public void onReplaced(long orderId, long newPrice, long newQuantity) {
+            deliver(orderId, ExecutionReport.Kind.REPLACED, newPrice, newQuantity, null);
+        }
+
+        @Override
+        public void onCancelRejected(long orderId) {
+            deliver(orderId, ExecutionReport.Kind.CANCEL_REJECTED, 0, 0, null);
+        }
+
+        @Override
+        public void onRejected(long orderId, RiskCheck.Reject reason) {
+            deliver(orderId, ExecutionReport.Kind.REJECTED, 0, 0, reason.name());
+        }
+    }
+}
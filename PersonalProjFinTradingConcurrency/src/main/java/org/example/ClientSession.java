@@ -0,0 +1,102 @@
+package org.example;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+* One client connection to the ClientGateway. A session is driven by a single thread of its own, usually
+* a virtual thread: it numbers its orders, has them validated and hands them to the owning shard's
+* intake, then reads its execution reports with poll(). Reports arrive from engine threads through a
+* lock-free queue, so delivering one never blocks the matcher.
+*/
+public class ClientSession {
+    final int id;
+    final long accountId; // Owner of the session's orders for the engine's risk checks
+    private final ClientGateway gateway;
+    private long nextSequence; // Session thread only
+    private final ConcurrentLinkedQueue<ExecutionReport> reports = new ConcurrentLinkedQueue<>();
+    private volatile Thread waiter; // The session thread while it is parked in poll()
+
+    ClientSession(ClientGateway gateway, int id, long accountId) {
+        this.gateway = gateway;
+        this.id = id;
+        this.accountId = accountId;
+    }
+
+    // Returns the order id assigned by the gateway; an order that fails validation is answered with a
+    // REJECTED report and never reaches the engine
+    public long submitOrder(String symbol, Order.Side side, Order.Type type, long priceTicks, long quantity) {
+        long orderId = ((long) id << 32) | ++nextSequence;
+        String reason = gateway.validate(symbol, side, type, priceTicks, quantity);
+        if (reason != null) {
+            deliver(new ExecutionReport(ExecutionReport.Kind.REJECTED, orderId, priceTicks, quantity, reason));
+        } else {
+            gateway.engine().submitOrder(orderId, accountId, symbol, side, type, priceTicks, quantity);
+        }
+        return orderId;
+    }
+
+    public void cancelOrder(long orderId, String symbol) {
+        if (owns(orderId, symbol)) {
+            gateway.engine().cancelOrder(orderId, symbol);
+        }
+    }
+
+    public void replaceOrder(long orderId, String symbol, long newPriceTicks, long newQuantity) {
+        if (!owns(orderId, symbol)) {
+            return; // Already answered
+        }
+        if (gateway.validateReplace(newPriceTicks, newQuantity) != null) {
+            deliver(new ExecutionReport(ExecutionReport.Kind.CANCEL_REJECTED, orderId, newPriceTicks, newQuantity, null));
+        } else {
+            gateway.engine().replaceOrder(orderId, symbol, newPriceTicks, newQuantity);
+        }
+    }
+
+    // A session may only amend its own orders; anything else is answered locally
+    private boolean owns(long orderId, String symbol) {
+        if ((orderId >>> 32) == id && gateway.isKnownSymbol(symbol)) {
+            return true;
+        }
+        deliver(new ExecutionReport(ExecutionReport.Kind.CANCEL_REJECTED, orderId, 0, 0, null));
+        return false;
+    }
+
+    // Session thread: the next report, or null if none arrives within the timeout
+    public ExecutionReport poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        waiter = Thread.currentThread(); // Published before polling, so a concurrent deliver() unparks us
+        try {
+            while (true) {
+                ExecutionReport report = reports.poll();
+                if (report != null) {
+                    return report;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiter = null;
+        }
+    }
+
+    // Any thread; never blocks
+    void deliver(ExecutionReport report) {
+        reports.offer(report);
+        Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public int sessionId() {
+        return id;
+    }
+}
@@ -0,0 +1,13 @@
+package org.example;
+
+/*
+* Hint for pinning an engine thread to a CPU. The JDK has no affinity API, so the default does nothing;
+* plug in a native implementation (e.g. a JNA sched_setaffinity call or an affinity library) to keep each
+* shard on its own isolated core, or pin the whole process externally with taskset.
+*/
+public interface CpuAffinity {
+    CpuAffinity NONE = cpu -> { };
+
+    // Called on the engine thread itself, before it starts consuming orders
+    void pinCurrentThread(int cpu);
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+/*
+* Reusable holder for the top N levels of each side of a book, best price first. Filled in place by
+* OrderBook.depth, so a pricing component can take a depth snapshot after every event without
+* allocating; only the first bidLevels/askLevels entries of each array are valid.
+*/
+public class DepthSnapshot {
+    final int maxLevels;
+    final long[] bidPrices;
+    final long[] bidQuantities;
+    final int[] bidOrderCounts;
+    final long[] askPrices;
+    final long[] askQuantities;
+    final int[] askOrderCounts;
+    int bidLevels;
+    int askLevels;
+
+    public DepthSnapshot(int maxLevels) {
+        this.maxLevels = maxLevels;
+        this.bidPrices = new long[maxLevels];
+        this.bidQuantities = new long[maxLevels];
+        this.bidOrderCounts = new int[maxLevels];
+        this.askPrices = new long[maxLevels];
+        this.askQuantities = new long[maxLevels];
+        this.askOrderCounts = new int[maxLevels];
+    }
+
+    // Used by the books while filling one side; returns false once that side is full
+    boolean add(Order.Side side, long price, long quantity, int orderCount) {
+        if (side == Order.Side.BUY) {
+            if (bidLevels == maxLevels) {
+                return false;
+            }
+            bidPrices[bidLevels] = price;
+            bidQuantities[bidLevels] = quantity;
+            bidOrderCounts[bidLevels++] = orderCount;
+        } else {
+            if (askLevels == maxLevels) {
+                return false;
+            }
+            askPrices[askLevels] = price;
+            askQuantities[askLevels] = quantity;
+            askOrderCounts[askLevels++] = orderCount;
+        }
+        return true;
+    }
+
+    void clear() {
+        bidLevels = 0;
+        askLevels = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DepthSnapshot{bids=[");
+        for (int i = 0; i < bidLevels; i++) {
+            sb.append(i == 0 ? "" : ", ").append(bidQuantities[i]).append('@').append(bidPrices[i]);
+        }
+        sb.append("], asks=[");
+        for (int i = 0; i < askLevels; i++) {
+            sb.append(i == 0 ? "" : ", ").append(askQuantities[i]).append('@').append(askPrices[i]);
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -0,0 +1,35 @@
+package org.example;
+
+/*
+* Receives the events produced by the MatchingEngine. Callbacks are invoked on the engine thread with
+* primitive arguments only, so an implementation that does not allocate keeps the matching path
+* allocation-free. Implementations must return quickly: anything slow (I/O, logging) belongs on
+* another thread.
+*/
+public interface ExecutionListener {
+    ExecutionListener NO_OP = (takerOrderId, makerOrderId, takerSide, price, quantity) -> { };
+
+    // A new order has reached the engine and is about to be matched; fills for it follow immediately
+    default void onAccepted(long orderId) { }
+
+    // One fill between an incoming (taker) order and a resting (maker) order, at the maker's price in ticks
+    void onTrade(long takerOrderId, long makerOrderId, Order.Side takerSide, long price, long quantity);
+
+    // Quantity taken off an order by a cancel or reduce, or the unfilled remainder of a market order;
+    // remainingQuantity is 0 once the order is gone
+    default void onCancelled(long orderId, long cancelledQuantity, long remainingQuantity) { }
+
+    // A cancel-replace was applied; the order now rests (or trades) at the new price and size
+    default void onReplaced(long orderId, long newPrice, long newQuantity) { }
+
+    // A cancel, reduce or replace named an order that is not resting (unknown, filled or already cancelled)
+    default void onCancelRejected(long orderId) { }
+
+    // A NEW or REPLACE failed a pre-trade risk check, or its price was beyond what the book can hold, and was
+    // dropped before reaching the book or journal
+    default void onRejected(long orderId, RiskCheck.Reject reason) { }
+
+    // Batch mode only: every message of a drained batch has been matched (and journalled); a good point to
+    // flush anything buffered per message
+    default void onEndOfBatch(int batchSize) { }
+}
@@ -0,0 +1,28 @@
+package org.example;
+
+/*
+* One response to a client session: the engine's acknowledgement, fills, cancels and replaces of the
+* session's orders, or a rejection raised by the gateway before the order reached the engine.
+*/
+public class ExecutionReport {
+    public enum Kind { ACCEPTED, REJECTED, FILLED, CANCELLED, REPLACED, CANCEL_REJECTED }
+
+    final Kind kind;
+    final long orderId;
+    final long price; // Ticks; the fill price for FILLED
+    final long quantity; // Filled, cancelled or new quantity depending on kind
+    final String reason; // REJECTED only
+
+    ExecutionReport(Kind kind, long orderId, long price, long quantity, String reason) {
+        this.kind = kind;
+        this.orderId = orderId;
+        this.price = price;
+        this.quantity = quantity;
+        this.reason = reason;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ExecutionReport{%s, orderId=%d, price=%d, quantity=%d%s}", kind, orderId, price, quantity, reason == null ? "" : ", reason=" + reason);
+    }
+}
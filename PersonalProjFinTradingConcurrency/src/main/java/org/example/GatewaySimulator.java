@@ -0,0 +1,106 @@
+package org.example;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/*
+* Session scaling run for the ClientGateway: for each session count, a fresh gateway serves that many
+* simulated clients, each on its own virtual thread. A client sends an order, waits for its
+* acknowledgement (reading any fills that arrive meanwhile), occasionally cancels, and repeats. The
+* round-trip latency and the aggregate order rate show where adding sessions stops adding throughput and
+* only queues them up behind the shards' intakes. Parameters are key=value arguments, e.g.
+*   gradle runGateway --args="sessions=10,100,1000,10000 ordersPerSession=200"
+*/
+public class GatewaySimulator {
+    private static final long MID = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        String[] sessionCounts = {"10", "100", "1000", "10000"};
+        int ordersPerSession = 200;
+        int shards = 2;
+        int symbols = 8;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (arg.substring(0, Math.max(arg.indexOf('='), 0))) {
+                case "sessions" -> sessionCounts = value.split(",");
+                case "ordersPerSession" -> ordersPerSession = Integer.parseInt(value);
+                case "shards" -> shards = Integer.parseInt(value);
+                case "symbols" -> symbols = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown parameter: " + arg);
+            }
+        }
+        System.out.println("sessions  orders/s    rtt p50 us  p99 us    p99.9 us  mean batch");
+        for (String sessionCount : sessionCounts) {
+            run(Integer.parseInt(sessionCount), ordersPerSession, shards, symbols);
+        }
+    }
+
+    private static void run(int sessionCount, int ordersPerSession, int shards, int symbolCount) throws Exception {
+        String[] symbols = new String[symbolCount];
+        Instrument[] instruments = new Instrument[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            symbols[s] = "SYM" + s;
+            instruments[s] = new Instrument(symbols[s], new BigDecimal("0.01"), Instrument.BookType.PRICE_LADDER);
+        }
+        ClientGateway gateway = new ClientGateway(shards, sessionCount, 1_000, instruments);
+        gateway.engine().enableBatching(256);
+        gateway.start();
+        Histogram roundTrips = new ConcurrentHistogram(TimeUnit.SECONDS.toNanos(60), 3);
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < sessionCount; c++) {
+                ClientSession session = gateway.openSession();
+                clients.submit(() -> {
+                    runClient(session, symbols, ordersPerSession, roundTrips);
+                    return null;
+                });
+            }
+        } // Waits for every client to finish
+        long elapsed = System.nanoTime() - start;
+        gateway.stop();
+
+        double meanBatch = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            meanBatch += gateway.engine().shard(shard).batchSizes().mean() / shards;
+        }
+        System.out.printf("%-9d %-11.0f %-11.1f %-9.1f %-9.1f %.1f%n", sessionCount, (double) sessionCount * ordersPerSession * 1e9 / elapsed,
+                roundTrips.getValueAtPercentile(50) / 1000.0, roundTrips.getValueAtPercentile(99) / 1000.0,
+                roundTrips.getValueAtPercentile(99.9) / 1000.0, meanBatch);
+    }
+
+    private static void runClient(ClientSession session, String[] symbols, int orders, Histogram roundTrips) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(session.sessionId());
+        for (int i = 0; i < orders; i++) {
+            String symbol = symbols[random.nextInt(symbols.length)];
+            Order.Side side = random.nextBoolean() ? Order.Side.BUY : Order.Side.SELL;
+            // Mostly passive orders a few ticks from the mid, some priced through it
+            long offset = random.nextInt(10) - 2;
+            long price = (side == Order.Side.BUY) ? MID - offset : MID + offset;
+            long sent = System.nanoTime();
+            long orderId = session.submitOrder(symbol, side, Order.Type.LIMIT, price, 1 + random.nextInt(100));
+            awaitAck(session, orderId);
+            roundTrips.recordValue(System.nanoTime() - sent);
+            if (random.nextInt(4) == 0) {
+                session.cancelOrder(orderId, symbol); // Its report is read while waiting for the next ack
+            }
+        }
+    }
+
+    private static void awaitAck(ClientSession session, long orderId) throws InterruptedException {
+        while (true) {
+            ExecutionReport report = session.poll(10, TimeUnit.SECONDS);
+            if (report == null) {
+                throw new IllegalStateException("No acknowledgement for order " + orderId);
+            }
+            if (report.orderId == orderId && (report.kind == ExecutionReport.Kind.ACCEPTED || report.kind == ExecutionReport.Kind.REJECTED)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.example;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/*
+* Static definition of a tradable symbol. The tick size fixes the price scale: inside the engine every
+* price is a long count of ticks, so the intake, matching and book paths compare and store plain longs.
+* BigDecimal only appears here, at the API edge, when converting prices in and out. The instrument also
+* selects which OrderBook implementation holds its resting orders.
+*/
+public class Instrument {
+    public enum BookType { TREE_MAP, PRICE_LADDER }
+
+    final String symbol;
+    final BigDecimal tickSize;
+    final BookType bookType;
+
+    public Instrument(String symbol, BigDecimal tickSize) {
+        this(symbol, tickSize, BookType.TREE_MAP);
+    }
+
+    public Instrument(String symbol, BigDecimal tickSize, BookType bookType) {
+        if (tickSize.signum() <= 0) {
+            throw new IllegalArgumentException("Tick size must be positive: " + tickSize);
+        }
+        this.symbol = symbol;
+        this.tickSize = tickSize;
+        this.bookType = bookType;
+    }
+
+    public OrderBook newOrderBook() {
+        return (bookType == BookType.PRICE_LADDER) ? new PriceLadderOrderBook() : new TreeMapOrderBook();
+    }
+
+    // Converts a decimal price to ticks; the price must be an exact multiple of the tick size
+    public long toTicks(BigDecimal price) {
+        try {
+            return price.divide(tickSize, 0, RoundingMode.UNNECESSARY).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Price " + price + " is not a multiple of tick size " + tickSize + " for " + symbol, e);
+        }
+    }
+
+    public BigDecimal toPrice(long ticks) {
+        return tickSize.multiply(BigDecimal.valueOf(ticks));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Instrument{symbol='%s', tickSize=%s, bookType=%s}", symbol, tickSize, bookType);
+    }
+}
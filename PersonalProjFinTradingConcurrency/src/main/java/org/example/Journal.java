@@ -0,0 +1,212 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/*
+* Append-only binary journal of the engine's input messages, written through a memory-mapped region of
+* the file so an append is a memory copy. The file starts with [int magic][int version]; then each record
+* is length-prefixed:
+*   [int length][long sequence][byte kind][byte side][byte type][long id][long account][long price]
+*   [long quantity][short symbol length][symbol chars]
+* The length is written last, so a torn record reads as length 0 and marks the end of the journal.
+* Journals from before the header (version 1) have no header and no account field. They still replay,
+* with every order on account 0, but are not appended to: recover from one, then journal to a new file.
+* Sequences start at 1 and increase by one per record. Records are forced to disk in groups: commit()
+* flushes everything appended since the last commit, and append() commits on its own once groupSize
+* records are pending. Events for a message may be published before its group is forced, so a crash
+* can lose at most the last uncommitted group.
+*/
+public class Journal implements AutoCloseable {
+    public static final int DEFAULT_REGION_SIZE = 64 << 20;
+    private static final int MAGIC = 0x4a524e4c; // "JRNL"
+    private static final int VERSION = 2;
+    private static final int UNVERSIONED = 1; // No file header and no account field
+    private static final int FILE_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int HEADER_SIZE = Integer.BYTES;
+    private static final int FIXED_PAYLOAD_SIZE = Long.BYTES + 3 + 4 * Long.BYTES + Short.BYTES;
+
+    private final FileChannel channel;
+    private final int regionSize;
+    private final int groupSize;
+    private MappedByteBuffer region;
+    private long regionStart; // File offset of region position 0
+    private long lastSequence;
+    private int uncommitted;
+
+    private Journal(FileChannel channel, long endOffset, long lastSequence, int regionSize, int groupSize) throws IOException {
+        this.channel = channel;
+        this.regionSize = regionSize;
+        this.groupSize = groupSize;
+        this.lastSequence = lastSequence;
+        if (endOffset == 0) {
+            map(0);
+            region.putInt(MAGIC);
+            region.putInt(VERSION);
+            region.force();
+        } else {
+            map(endOffset);
+        }
+    }
+
+    // Opens (or creates) a journal and positions it after the last complete record
+    public static Journal open(Path file, int groupSize) throws IOException {
+        return open(file, groupSize, DEFAULT_REGION_SIZE);
+    }
+
+    public static Journal open(Path file, int groupSize, int regionSize) throws IOException {
+        if (groupSize <= 0) {
+            throw new IllegalArgumentException("Group size must be positive: " + groupSize);
+        }
+        long[] end = Files.exists(file) ? scan(file, 0, null) : new long[] {0, 0, VERSION};
+        if (end[2] != VERSION) {
+            if (end[1] > 0) {
+                throw new IOException("Journal " + file + " has the unversioned layout; recover from it and journal to a new file");
+            }
+            end = new long[] {0, 0, VERSION}; // Nothing in it yet: start it over with a header
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Journal(channel, end[0], end[1], regionSize, groupSize);
+    }
+
+    private void map(long offset) throws IOException {
+        regionStart = offset;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, offset, regionSize);
+    }
+
+    // Appends one message and returns its sequence number
+    public long append(OrderCommand command) {
+        String symbol = command.symbol;
+        int payload = FIXED_PAYLOAD_SIZE + symbol.length() * Character.BYTES;
+        try {
+            // Keep room for this record plus the zero length that terminates the journal
+            if (region.remaining() < HEADER_SIZE + payload + HEADER_SIZE) {
+                if (HEADER_SIZE + payload + HEADER_SIZE > regionSize) {
+                    throw new IllegalArgumentException("Record of " + payload + " bytes exceeds the journal region size");
+                }
+                region.force();
+                map(regionStart + region.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int start = region.position();
+        region.position(start + HEADER_SIZE);
+        region.putLong(++lastSequence);
+        region.put((byte) command.kind.ordinal());
+        region.put((byte) (command.side == null ? -1 : command.side.ordinal()));
+        region.put((byte) (command.type == null ? -1 : command.type.ordinal()));
+        region.putLong(command.id);
+        region.putLong(command.accountId);
+        region.putLong(command.price);
+        region.putLong(command.quantity);
+        region.putShort((short) symbol.length());
+        for (int i = 0; i < symbol.length(); i++) {
+            region.putChar(symbol.charAt(i));
+        }
+        region.putInt(start, payload);
+        if (++uncommitted >= groupSize) {
+            commit();
+        }
+        return lastSequence;
+    }
+
+    // Forces every record appended since the last commit to the storage device
+    public void commit() {
+        if (uncommitted > 0) {
+            region.force();
+            uncommitted = 0;
+        }
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        commit();
+        channel.close();
+    }
+
+    // Feeds every record with a sequence above afterSequence to the handler, in order, through one reused
+    // command. Returns the last sequence in the journal, or afterSequence if there is nothing newer.
+    public static long replay(Path file, long afterSequence, Consumer<OrderCommand> handler) throws IOException {
+        if (!Files.exists(file)) {
+            return afterSequence;
+        }
+        return Math.max(afterSequence, scan(file, afterSequence, handler)[1]);
+    }
+
+    // Reads records up to the terminator; returns {end offset, last sequence, version}. The end offset is 0 for
+    // an empty file, which has no header yet.
+    private static long[] scan(Path file, long afterSequence, Consumer<OrderCommand> handler) throws IOException {
+        OrderCommand command = new OrderCommand();
+        long offset = 0;
+        long sequence = 0;
+        int version = VERSION;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16))) {
+            in.mark(FILE_HEADER_SIZE);
+            try {
+                if (in.readInt() == MAGIC) {
+                    version = in.readInt();
+                    if (version != VERSION) {
+                        throw new IOException("Journal " + file + " has unsupported version " + version);
+                    }
+                    offset = FILE_HEADER_SIZE;
+                } else {
+                    version = UNVERSIONED; // The first int is already a record length
+                    in.reset();
+                }
+            } catch (EOFException e) {
+                return new long[] {0, 0, VERSION};
+            }
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0) {
+                    break;
+                }
+                long recordSequence = in.readLong();
+                if (handler == null || recordSequence <= afterSequence) {
+                    in.skipNBytes(length - Long.BYTES);
+                } else {
+                    OrderCommand.Kind kind = OrderCommand.Kind.values()[in.readByte()];
+                    byte side = in.readByte();
+                    byte type = in.readByte();
+                    long id = in.readLong();
+                    long accountId = (version == UNVERSIONED) ? 0 : in.readLong();
+                    long price = in.readLong();
+                    long quantity = in.readLong();
+                    char[] symbol = new char[in.readShort()];
+                    for (int i = 0; i < symbol.length; i++) {
+                        symbol[i] = in.readChar();
+                    }
+                    command.set(kind, id, accountId, new String(symbol),
+                            side < 0 ? null : Order.Side.values()[side],
+                            type < 0 ? null : Order.Type.values()[type],
+                            price, quantity);
+                    handler.accept(command);
+                }
+                sequence = recordSequence;
+                offset += HEADER_SIZE + length;
+            }
+        }
+        return new long[] {offset, sequence, version};
+    }
+}
@@ -0,0 +1,317 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+
+/*
+* Open-loop load generator for the sharded engine. Each producer thread sends on a fixed schedule derived
+* from the target rate and never waits for responses, so a stalled engine cannot slow the offered load.
+* Latency is measured from each order's intended send time rather than from when the producer actually
+* sent it: a stall shows up in every order scheduled behind it, which corrects for coordinated omission.
+* Each shard's listener keeps two histograms on its engine thread, submit to ack (onAccepted) and submit
+* to the first fill of the incoming order, and they are merged once the run has finished. The achieved rate
+* counts actual sends over the time between the first and the last of them, and the schedule lag shows how
+* far behind its schedule a producer fell, so a run that could not keep up does not report the target.
+*/
+public class LoadGenerator {
+    public enum PriceWalk { FIXED, RANDOM_WALK, MEAN_REVERTING }
+
+    private static final long BASE_PRICE = 100_000; // Ticks
+    private static final int PASSIVE_RANGE = 10; // Passive orders rest 1..PASSIVE_RANGE ticks from the mid
+    private static final int SCHEDULE_SLOTS = 1 << 20; // Per producer; the engine must lag by fewer orders
+    private static final int RECENT_ORDERS = 256; // Per producer, the candidates for cancels
+    private static final long MAX_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    // Run parameters, parsed from key=value arguments
+    public static class Config {
+        long rate = 200_000; // Target messages per second across all producers
+        int symbols = 8;
+        PriceWalk priceWalk = PriceWalk.RANDOM_WALK;
+        double cancelRatio = 0.3; // Share of messages that cancel a recent order of the same producer
+        double marketableRatio = 0.1; // Share of new orders sent as market orders that take liquidity
+        int producers = 4;
+        int shards = 2;
+        int batch = 256; // Engine batch limit, 0 to run one message at a time
+        int warmupSeconds = 5;
+        int durationSeconds = 20;
+        long seed = 42;
+        Path output = Path.of("build", "loadgen");
+
+        public static Config parse(String... args) {
+            Config config = new Config();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("Expected key=value: " + arg);
+                }
+                String value = arg.substring(eq + 1);
+                switch (arg.substring(0, eq)) {
+                    case "rate" -> config.rate = Long.parseLong(value);
+                    case "symbols" -> config.symbols = Integer.parseInt(value);
+                    case "priceWalk" -> config.priceWalk = PriceWalk.valueOf(value);
+                    case "cancelRatio" -> config.cancelRatio = Double.parseDouble(value);
+                    case "marketableRatio" -> config.marketableRatio = Double.parseDouble(value);
+                    case "producers" -> config.producers = Integer.parseInt(value);
+                    case "shards" -> config.shards = Integer.parseInt(value);
+                    case "batch" -> config.batch = Integer.parseInt(value);
+                    case "warmupSeconds" -> config.warmupSeconds = Integer.parseInt(value);
+                    case "durationSeconds" -> config.durationSeconds = Integer.parseInt(value);
+                    case "seed" -> config.seed = Long.parseLong(value);
+                    case "output" -> config.output = Path.of(value);
+                    default -> throw new IllegalArgumentException("Unknown parameter: " + arg);
+                }
+            }
+            return config;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("rate=%d symbols=%d priceWalk=%s cancelRatio=%s marketableRatio=%s producers=%d shards=%d batch=%d warmupSeconds=%d durationSeconds=%d seed=%d",
+                    rate, symbols, priceWalk, cancelRatio, marketableRatio, producers, shards, batch, warmupSeconds, durationSeconds, seed);
+        }
+    }
+
+    // Engine-thread listener of one shard; its histograms are read only after the shard has stopped
+    private class ShardRecorder implements ExecutionListener {
+        final Histogram ack = new Histogram(MAX_LATENCY_NANOS, 3);
+        final Histogram fill = new Histogram(MAX_LATENCY_NANOS, 3);
+        long trades;
+        private long lastTaker = -1;
+
+        @Override
+        public void onAccepted(long orderId) {
+            record(ack, orderId);
+        }
+
+        @Override
+        public void onTrade(long takerOrderId, long makerOrderId, Order.Side takerSide, long price, long quantity) {
+            trades++;
+            if (takerOrderId != lastTaker) { // The fills of one incoming order arrive back to back
+                lastTaker = takerOrderId;
+                record(fill, takerOrderId);
+            }
+        }
+
+        private void record(Histogram histogram, long orderId) {
+            // The producer wrote the slot before submitting, and the intake hand-off makes it visible here
+            long intended = intendedTimes[(int) (orderId >>> 40)][(int) orderId & (SCHEDULE_SLOTS - 1)];
+            if (intended >= measureFrom) {
+                histogram.recordValue(Math.min(System.nanoTime() - intended, MAX_LATENCY_NANOS));
+            }
+        }
+    }
+
+    private final Config config;
+    private final String[] symbolNames;
+    private final AtomicLongArray mids; // Shared by the producers, one per symbol
+    private final long[][] intendedTimes; // [producer][id & (SCHEDULE_SLOTS - 1)] -> scheduled send time
+    // Per producer, for the messages scheduled inside the measured window; each producer writes only its own
+    // slots, and run() joins the producers before anything reads them
+    private final long[] sentByProducer;
+    private final long[] firstSendNanos;
+    private final long[] lastSendNanos;
+    private final long[] lastLagNanos; // How late the last send was against its schedule
+    private final long[] maxLagNanos;
+    private final ShardRecorder[] recorders;
+    private final Histogram ackLatency = new Histogram(MAX_LATENCY_NANOS, 3);
+    private final Histogram fillLatency = new Histogram(MAX_LATENCY_NANOS, 3);
+    private long measureFrom;
+    private long trades;
+
+    public LoadGenerator(Config config) {
+        this.config = config;
+        this.symbolNames = new String[config.symbols];
+        this.mids = new AtomicLongArray(config.symbols);
+        for (int s = 0; s < config.symbols; s++) {
+            symbolNames[s] = "SYM" + s;
+            mids.set(s, BASE_PRICE);
+        }
+        this.intendedTimes = new long[config.producers][SCHEDULE_SLOTS];
+        this.sentByProducer = new long[config.producers];
+        this.firstSendNanos = new long[config.producers];
+        this.lastSendNanos = new long[config.producers];
+        this.lastLagNanos = new long[config.producers];
+        this.maxLagNanos = new long[config.producers];
+        this.recorders = new ShardRecorder[config.shards];
+    }
+
+    public void run() throws InterruptedException {
+        Instrument[] instruments = new Instrument[config.symbols];
+        for (int s = 0; s < config.symbols; s++) {
+            instruments[s] = new Instrument(symbolNames[s], new BigDecimal("0.01"), Instrument.BookType.PRICE_LADDER);
+        }
+        ShardedMatchingEngine engine = new ShardedMatchingEngine(config.shards, shard -> recorders[shard] = new ShardRecorder(), instruments);
+        if (config.batch > 0) {
+            engine.enableBatching(config.batch);
+        }
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        measureFrom = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds); // Published to shards by start()
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+        engine.start();
+
+        Thread[] producers = new Thread[config.producers];
+        for (int p = 0; p < producers.length; p++) {
+            int producer = p;
+            producers[p] = new Thread(() -> produce(engine, producer, start, end), "load-producer-" + p);
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        // Let the shards drain what was submitted before stopping them
+        for (int shard = 0; shard < engine.shardCount(); shard++) {
+            while (engine.queueMetrics(shard).depth > 0) {
+                Thread.sleep(10);
+            }
+        }
+        engine.stop();
+        for (ShardRecorder recorder : recorders) {
+            ackLatency.add(recorder.ack);
+            fillLatency.add(recorder.fill);
+            trades += recorder.trades;
+        }
+    }
+
+    private void produce(ShardedMatchingEngine engine, int producer, long start, long end) {
+        SplittableRandom random = new SplittableRandom(config.seed + producer);
+        long[] intended = intendedTimes[producer];
+        long[] recentIds = new long[RECENT_ORDERS];
+        int[] recentSymbols = new int[RECENT_ORDERS];
+        int recentCount = 0;
+        long sequence = 0;
+        double intervalNanos = 1e9 * config.producers / config.rate;
+        for (long i = 0; ; i++) {
+            // Producers interleave their schedules evenly within each interval
+            long due = start + (long) ((i + (double) producer / config.producers) * intervalNanos);
+            if (due >= end) {
+                break;
+            }
+            waitUntil(due);
+            if (recentCount > 0 && random.nextDouble() < config.cancelRatio) {
+                int victim = random.nextInt(Math.min(recentCount, RECENT_ORDERS));
+                engine.cancelOrder(recentIds[victim], symbolNames[recentSymbols[victim]]);
+                sent(producer, due);
+                continue;
+            }
+            long id = ((long) producer << 40) | sequence++;
+            intended[(int) id & (SCHEDULE_SLOTS - 1)] = due;
+            int symbol = random.nextInt(config.symbols);
+            long mid = nextMid(symbol, random);
+            Order.Side side = random.nextBoolean() ? Order.Side.BUY : Order.Side.SELL;
+            if (random.nextDouble() < config.marketableRatio) {
+                engine.submitOrder(id, symbolNames[symbol], side, Order.Type.MARKET, 0, 1 + random.nextInt(10));
+            } else {
+                long offset = 1 + random.nextInt(PASSIVE_RANGE);
+                long price = (side == Order.Side.BUY) ? mid - offset : mid + offset;
+                engine.submitOrder(id, symbolNames[symbol], side, Order.Type.LIMIT, price, 1 + random.nextInt(100));
+                recentIds[recentCount % RECENT_ORDERS] = id;
+                recentSymbols[recentCount % RECENT_ORDERS] = symbol;
+                recentCount++;
+            }
+            sent(producer, due);
+        }
+    }
+
+    // Called once the submission has returned, which can be well after it was due if the intake was full
+    private void sent(int producer, long due) {
+        if (due < measureFrom) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (sentByProducer[producer]++ == 0) {
+            firstSendNanos[producer] = now;
+        }
+        lastSendNanos[producer] = now;
+        lastLagNanos[producer] = now - due;
+        maxLagNanos[producer] = Math.max(maxLagNanos[producer], now - due);
+    }
+
+    private long nextMid(int symbol, SplittableRandom random) {
+        return switch (config.priceWalk) {
+            case FIXED -> BASE_PRICE;
+            case RANDOM_WALK -> mids.addAndGet(symbol, random.nextInt(3) - 1);
+            case MEAN_REVERTING -> {
+                // Step back towards the base price with a probability that grows with the distance from it
+                long distance = BASE_PRICE - mids.get(symbol);
+                long step = (random.nextInt(50) < Math.abs(distance)) ? Long.signum(distance) : random.nextInt(3) - 1;
+                yield mids.addAndGet(symbol, step);
+            }
+        };
+    }
+
+    // Parks while the send time is far off, then yields, so a producer gives the core away on a busy host
+    private static void waitUntil(long due) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            if (remaining > 100_000) {
+                LockSupport.parkNanos(remaining - 50_000);
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    public void printSummary(PrintStream out) {
+        long sent = 0;
+        long firstSend = Long.MAX_VALUE;
+        long lastSend = Long.MIN_VALUE;
+        long finalLag = 0;
+        long maxLag = 0;
+        for (int p = 0; p < sentByProducer.length; p++) {
+            if (sentByProducer[p] == 0) {
+                continue;
+            }
+            sent += sentByProducer[p];
+            firstSend = Math.min(firstSend, firstSendNanos[p]);
+            if (lastSendNanos[p] > lastSend) {
+                lastSend = lastSendNanos[p];
+                finalLag = lastLagNanos[p];
+            }
+            maxLag = Math.max(maxLag, maxLagNanos[p]);
+        }
+        // sent - 1 intervals between the first and the last send
+        double achievedRate = (sent > 1 && lastSend > firstSend) ? (sent - 1) * 1e9 / (lastSend - firstSend) : 0;
+        out.println(config);
+        out.printf("sent=%d achievedRate=%.0f/s targetRate=%d/s scheduleLag: final=%.1fms max=%.1fms trades=%d%n",
+                sent, achievedRate, config.rate, finalLag / 1e6, maxLag / 1e6, trades);
+        printPercentiles(out, "submit-to-ack ", ackLatency);
+        printPercentiles(out, "submit-to-fill", fillLatency);
+    }
+
+    private static void printPercentiles(PrintStream out, String name, Histogram histogram) {
+        StringBuilder sb = new StringBuilder(name).append(" (us): count=").append(histogram.getTotalCount());
+        for (double percentile : PERCENTILES) {
+            sb.append(String.format(" p%s=%.1f", percentile, histogram.getValueAtPercentile(percentile) / 1000.0));
+        }
+        out.println(sb.append(String.format(" max=%.1f", histogram.getMaxValue() / 1000.0)));
+    }
+
+    // Writes <name>.txt with the parameters and summary, plus one HdrHistogram percentile file (.hgrm, in
+    // microseconds) per histogram, so runs can be compared or plotted; returns the summary file
+    public Path writeResults() throws IOException {
+        Files.createDirectories(config.output);
+        String name = "loadgen-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path summary = config.output.resolve(name + ".txt");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(summary))) {
+            printSummary(out);
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(config.output.resolve(name + "-ack.hgrm")))) {
+            ackLatency.outputPercentileDistribution(out, 1000.0);
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(config.output.resolve(name + "-fill.hgrm")))) {
+            fillLatency.outputPercentileDistribution(out, 1000.0);
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,126 @@
+package org.example;
+
+import java.util.function.Consumer;
+
+/*
+* Open-addressing hash map from primitive long keys to objects, for use by a single thread. Linear
+* probing over parallel key/value arrays avoids the boxing and per-entry nodes of HashMap<Long, V>.
+* Removal shifts the rest of the probe run back instead of leaving tombstones, so lookups stay short
+* under the add/remove churn of a cancel-heavy order flow. Values may not be null.
+*/
+public class LongHashMap<V> {
+    private long[] keys;
+    private Object[] values; // null marks an empty slot
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public LongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = capacity / 2; // Load factor 0.5 keeps probe runs short
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads sequential ids
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            Object value = values[i];
+            if (value == null) {
+                return null;
+            }
+            if (keys[i] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            Object existing = values[i];
+            if (existing == null) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size > resizeThreshold) {
+                    rehash(values.length << 1);
+                }
+                return null;
+            }
+            if (keys[i] == key) {
+                values[i] = value;
+                return (V) existing;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            Object value = values[i];
+            if (value == null) {
+                return null;
+            }
+            if (keys[i] == key) {
+                closeGap(i);
+                size--;
+                return (V) value;
+            }
+        }
+    }
+
+    // Backward-shift deletion: pull later entries of the run into the gap when their home slot allows it
+    private void closeGap(int gap) {
+        for (int i = (gap + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = slot(keys[i]);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int j = slot(oldKeys[i]);
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example;
+
+/*
+* Reusable slot of the MarketDataPublisher ring, holding either a level update or a top-of-book snapshot.
+*/
+public class MarketDataEvent {
+    public enum Kind { LEVEL, TOP_OF_BOOK }
+
+    Kind kind;
+    String symbol;
+    // LEVEL
+    Order.Side side;
+    long price;
+    long quantity;
+    int orderCount;
+    // TOP_OF_BOOK
+    long bidPrice;
+    long bidQuantity;
+    long askPrice;
+    long askQuantity;
+
+    long key; // Conflation key while the event waits in the publisher's pending table
+
+    void setLevel(String symbol, Order.Side side, long price, long quantity, int orderCount) {
+        this.kind = Kind.LEVEL;
+        this.symbol = symbol;
+        this.side = side;
+        this.price = price;
+        this.quantity = quantity;
+        this.orderCount = orderCount;
+    }
+
+    void setTopOfBook(String symbol, long bidPrice, long bidQuantity, long askPrice, long askQuantity) {
+        this.kind = Kind.TOP_OF_BOOK;
+        this.symbol = symbol;
+        this.bidPrice = bidPrice;
+        this.bidQuantity = bidQuantity;
+        this.askPrice = askPrice;
+        this.askQuantity = askQuantity;
+    }
+
+    void copyFrom(MarketDataEvent other) {
+        if (other.kind == Kind.LEVEL) {
+            setLevel(other.symbol, other.side, other.price, other.quantity, other.orderCount);
+        } else {
+            setTopOfBook(other.symbol, other.bidPrice, other.bidQuantity, other.askPrice, other.askQuantity);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.example;
+
+/*
+* Consumer of the market-data stream produced by MarketDataPublisher, called on the publisher's own
+* thread. Both kinds of update carry absolute state rather than deltas, so a conflated stream that skips
+* intermediate updates still converges on the book.
+*/
+public interface MarketDataListener {
+    // New aggregate state of one price level; quantity and orderCount are 0 when the level emptied
+    void onLevelUpdate(String symbol, Order.Side side, long price, long quantity, int orderCount);
+
+    // Best bid and offer after a change at the touch; an empty side has price and quantity 0
+    void onTopOfBook(String symbol, long bidPrice, long bidQuantity, long askPrice, long askQuantity);
+}
@@ -0,0 +1,190 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/*
+* Output stage that moves market data off the engine thread. The engine thread writes level updates and
+* top-of-book snapshots into a bounded single-producer/single-consumer ring of preallocated events, and
+* a dedicated publisher thread hands them to a MarketDataListener. The engine never blocks and never
+* does I/O: when the ring is full because the consumer lags, updates are parked in a pending table keyed
+* by level (or by symbol for top-of-book), where a newer update for the same key replaces the older one.
+* The pending table is drained back into the ring, oldest key first, as space frees up and on flush().
+* An engine with nothing to match keeps flushing through flushWhile(), so a parked update goes out once
+* the consumer catches up rather than waiting for the next message.
+* Behind a batching engine every update is held in the pending table until the end-of-batch flush(), so
+* each level touched by a batch is published once, in its final state.
+* Keys pack the price into the upper bits, so prices must lie in [0, 2^45) ticks.
+*/
+public class MarketDataPublisher implements Runnable {
+    private final MarketDataEvent[] ring;
+    private final int mask;
+    private final AtomicLong published = new AtomicLong(); // Written by the engine thread only
+    private final AtomicLong consumed = new AtomicLong(); // Written by the publisher thread only
+    private final WaitStrategy waitStrategy;
+    private final MarketDataListener listener;
+    private volatile boolean running = true;
+
+    // Engine-thread state for conflation
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private final LongHashMap<MarketDataEvent> pendingByKey = new LongHashMap<>(1024);
+    private final ArrayDeque<MarketDataEvent> pendingOrder = new ArrayDeque<>();
+    private final ArrayDeque<MarketDataEvent> freeEvents = new ArrayDeque<>();
+    private long conflated;
+    private boolean conflateUntilFlush;
+
+    public MarketDataPublisher(int capacity, WaitStrategy waitStrategy, MarketDataListener listener) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.ring = new MarketDataEvent[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new MarketDataEvent();
+        }
+        this.waitStrategy = waitStrategy;
+        this.listener = listener;
+    }
+
+    // Engine thread: hold every update until the next flush() instead of publishing it straight away
+    public void conflateUntilFlush() {
+        conflateUntilFlush = true;
+    }
+
+    // Engine thread: the new aggregate state of one level
+    public void levelUpdated(String symbol, Order.Side side, long price, long quantity, int orderCount) {
+        if (pendingOrder.isEmpty() && !conflateUntilFlush) {
+            MarketDataEvent slot = tryClaim();
+            if (slot != null) {
+                slot.setLevel(symbol, side, price, quantity, orderCount);
+                publish();
+                return;
+            }
+        }
+        long key = (price << 18) | ((long) symbolId(symbol) << 2) | ((long) side.ordinal() << 1);
+        pending(key).setLevel(symbol, side, price, quantity, orderCount);
+        if (!conflateUntilFlush) {
+            flush();
+        }
+    }
+
+    // Engine thread: the new best bid and offer of a symbol
+    public void topOfBook(String symbol, long bidPrice, long bidQuantity, long askPrice, long askQuantity) {
+        if (pendingOrder.isEmpty() && !conflateUntilFlush) {
+            MarketDataEvent slot = tryClaim();
+            if (slot != null) {
+                slot.setTopOfBook(symbol, bidPrice, bidQuantity, askPrice, askQuantity);
+                publish();
+                return;
+            }
+        }
+        long key = ((long) symbolId(symbol) << 2) | 1;
+        pending(key).setTopOfBook(symbol, bidPrice, bidQuantity, askPrice, askQuantity);
+        if (!conflateUntilFlush) {
+            flush();
+        }
+    }
+
+    // Engine thread: moves as many conflated updates into the ring as it has room for
+    public void flush() {
+        while (!pendingOrder.isEmpty()) {
+            MarketDataEvent slot = tryClaim();
+            if (slot == null) {
+                return;
+            }
+            MarketDataEvent event = pendingOrder.poll();
+            slot.copyFrom(event);
+            publish();
+            pendingByKey.remove(event.key);
+            freeEvents.add(event);
+        }
+    }
+
+    // Engine thread, between messages: retries the pending updates, waiting per the wait strategy between
+    // attempts, until all are in the ring or idle turns false (e.g. a message has arrived)
+    public void flushWhile(BooleanSupplier idle) {
+        int attempt = 0;
+        while (!pendingOrder.isEmpty() && idle.getAsBoolean()) {
+            flush();
+            if (!pendingOrder.isEmpty()) {
+                waitStrategy.idle(attempt++);
+            }
+        }
+    }
+
+    // Engine thread: updates parked in the pending table, not yet in the ring
+    public int pendingCount() {
+        return pendingOrder.size();
+    }
+
+    private MarketDataEvent pending(long key) {
+        MarketDataEvent event = pendingByKey.get(key);
+        if (event != null) {
+            conflated++;
+            return event;
+        }
+        event = freeEvents.isEmpty() ? new MarketDataEvent() : freeEvents.poll();
+        event.key = key;
+        pendingByKey.put(key, event);
+        pendingOrder.add(event);
+        return event;
+    }
+
+    private int symbolId(String symbol) {
+        Integer id = symbolIds.get(symbol);
+        if (id == null) {
+            id = symbolIds.size();
+            symbolIds.put(symbol, id);
+        }
+        return id;
+    }
+
+    private MarketDataEvent tryClaim() {
+        long sequence = published.get();
+        if (sequence - consumed.get() >= ring.length) {
+            return null;
+        }
+        return ring[(int) sequence & mask];
+    }
+
+    private void publish() {
+        published.lazySet(published.get() + 1);
+    }
+
+    // Publisher thread: delivers events until stopped, then drains what is already in the ring
+    @Override
+    public void run() {
+        long next = consumed.get();
+        int attempt = 0;
+        while (running || next < published.get()) {
+            if (next < published.get()) {
+                MarketDataEvent event = ring[(int) next & mask];
+                if (event.kind == MarketDataEvent.Kind.LEVEL) {
+                    listener.onLevelUpdate(event.symbol, event.side, event.price, event.quantity, event.orderCount);
+                } else {
+                    listener.onTopOfBook(event.symbol, event.bidPrice, event.bidQuantity, event.askPrice, event.askQuantity);
+                }
+                consumed.lazySet(++next);
+                attempt = 0;
+            } else {
+                waitStrategy.idle(attempt++);
+            }
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    public long publishedCount() {
+        return published.get();
+    }
+
+    // Engine thread: number of updates that replaced an older pending update for the same key
+    public long conflatedCount() {
+        return conflated;
+    }
+}
@@ -0,0 +1,456 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/*
+* Single-threaded consumer: uns on a single thread and processes orders sequentially 
+from a thread-safe OrderIntake to prevent race conditions during matching. The default intake is a
+preallocated lock-free ring buffer; BlockingQueueIntake can be plugged in instead for comparison.
+With a Journal enabled every accepted message is written ahead of matching, and the books are
+snapshotted periodically, so recover() can rebuild them deterministically after a restart. Nothing on
+the engine thread prints: book changes go to an optional MarketDataPublisher, which delivers them from
+its own thread. Orders are recycled through a per-engine OrderPool, so once the pool covers the working
+set of resting orders, matching on a PriceLadderOrderBook allocates nothing. In batch mode run() drains
+every message already waiting, matches them back to back, and only then commits the journal, flushes
+market data and calls ExecutionListener.onEndOfBatch, once per batch. An optional RiskCheck screens new
+orders and replaces before they are journalled; rejects are reported through onRejected. So is a limit
+price the symbol's book cannot hold (OrderBook.canRest), as PRICE_RANGE, so the book never throws on a
+journalled message and recover() never replays one that would.
+*/
+public class MatchingEngine implements Runnable {
+    private static final int DEFAULT_INTAKE_CAPACITY = 1 << 16;
+    private static final int DEFAULT_POOLED_ORDERS = 1 << 16;
+
+    private final OrderIntake intake;
+    private ExecutionListener listener; // Swapped for NO_OP while recover() replays history
+    // Symbol -> tick definition; filled in the constructor and read-only afterwards, so producers may share it
+    private final Map<String, Instrument> instruments = new HashMap<>();
+    // Symbol -> resting orders; only the engine thread touches the books
+    private final Map<String, OrderBook> books = new HashMap<>();
+    // Symbol -> {bid price, bid quantity, ask price, ask quantity} last sent to market data
+    private final Map<String, long[]> lastTopOfBook = new HashMap<>();
+    private final OrderPool orderPool = new OrderPool(DEFAULT_POOLED_ORDERS); // Engine thread only
+    private MarketDataPublisher marketData; // Optional, engine thread only
+    private volatile boolean running = true;
+    private final BooleanSupplier idle = this::isIdle;
+
+    private RiskCheck risk; // Optional pre-trade checks, engine thread only
+    private Journal journal; // Optional write-ahead journal, engine thread only
+    private Path snapshotFile;
+    private long snapshotInterval;
+    private long snapshotSequence; // Journal sequence covered by the latest snapshot
+
+    private int maxBatchSize; // 0 until enableBatching(); run() then drains up to this many per batch
+    private final Consumer<OrderCommand> batchHandler = this::onMessage;
+    private final BatchSizeHistogram batchSizes = new BatchSizeHistogram();
+
+    public MatchingEngine(Instrument... instruments) {
+        this(ExecutionListener.NO_OP, instruments);
+    }
+
+    public MatchingEngine(ExecutionListener listener, Instrument... instruments) {
+        this(new RingBufferIntake(DEFAULT_INTAKE_CAPACITY, WaitStrategy.parking(1_000)), listener, instruments);
+    }
+
+    public MatchingEngine(OrderIntake intake, ExecutionListener listener, Instrument... instruments) {
+        this.intake = intake;
+        this.listener = listener;
+        for (Instrument instrument : instruments) {
+            this.instruments.put(instrument.symbol, instrument);
+            this.books.put(instrument.symbol, instrument.newOrderBook());
+            this.lastTopOfBook.put(instrument.symbol, new long[4]);
+        }
+    }
+
+    public Instrument instrument(String symbol) {
+        Instrument instrument = instruments.get(symbol);
+        if (instrument == null) {
+            throw new IllegalArgumentException("Unknown symbol: " + symbol);
+        }
+        return instrument;
+    }
+
+    // API edge: converts a decimal limit price to ticks. Market orders carry no price and may pass null.
+    public void submitOrder(long id, String symbol, Order.Side side, Order.Type type, BigDecimal price, long quantity) {
+        long priceTicks = (type == Order.Type.MARKET) ? 0 : instrument(symbol).toTicks(price);
+        submitOrder(id, symbol, side, type, priceTicks, quantity);
+    }
+
+    // Thread-safe submission: the fields are written straight into a reusable intake slot
+    public void submitOrder(long id, String symbol, Order.Side side, Order.Type type, long priceTicks, long quantity) {
+        submitOrder(id, 0, symbol, side, type, priceTicks, quantity);
+    }
+
+    // As above, for an order owned by accountId, whose limits the RiskCheck applies
+    public void submitOrder(long id, long accountId, String symbol, Order.Side side, Order.Type type, long priceTicks, long quantity) {
+        submit(OrderCommand.Kind.NEW, id, accountId, symbol, side, type, priceTicks, quantity);
+    }
+
+    public void cancelOrder(long id, String symbol) {
+        submit(OrderCommand.Kind.CANCEL, id, 0, symbol, null, null, 0, 0);
+    }
+
+    // Takes quantity off a resting order, keeping its queue position; reducing by all of it cancels
+    public void reduceOrder(long id, String symbol, long quantity) {
+        submit(OrderCommand.Kind.REDUCE, id, 0, symbol, null, null, 0, quantity);
+    }
+
+    // Cancel-replace: a smaller size at the same price keeps queue position, anything else re-enters
+    // the order at the back of the queue (and may trade if the new price crosses)
+    public void replaceOrder(long id, String symbol, long newPriceTicks, long newQuantity) {
+        submit(OrderCommand.Kind.REPLACE, id, 0, symbol, null, null, newPriceTicks, newQuantity);
+    }
+
+    private void submit(OrderCommand.Kind kind, long id, long accountId, String symbol, Order.Side side, Order.Type type, long priceTicks, long quantity) {
+        instrument(symbol); // Reject unknown symbols on the producer thread, before they reach the engine
+        OrderCommand command = intake.claim();
+        command.set(kind, id, accountId, symbol, side, type, priceTicks, quantity);
+        intake.publish(command);
+    }
+
+    // Journals every accepted message before it is matched and snapshots the books every snapshotInterval
+    // messages. Call before run(); when restarting, call recover() first so the journal is appended to.
+    public void enableJournal(Journal journal, Path snapshotFile, long snapshotInterval) {
+        this.journal = journal;
+        this.snapshotFile = snapshotFile;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    // Screens every NEW and REPLACE message before it is journalled or matched. Call before run(), and
+    // before recover() when restarting so open notional is rebuilt from the recovered books.
+    public void enableRiskChecks(RiskCheck risk) {
+        this.risk = risk;
+    }
+
+    // Switches run() to batch mode: each pass drains up to maxBatchSize messages before the end-of-batch work
+    public void enableBatching(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // Engine thread only (e.g. from an ExecutionListener callback): top levels of a symbol's book
+    public void depth(String symbol, DepthSnapshot snapshot) {
+        books.get(symbol).depth(snapshot);
+    }
+
+    // Sends incremental level updates and top-of-book changes to the publisher. Call before run(), after
+    // recover() when restarting; the publisher's own thread must be started separately.
+    public void publishMarketData(MarketDataPublisher marketData) {
+        this.marketData = marketData;
+    }
+
+    // Rebuilds the books from the latest snapshot plus the journal records written after it, returning the
+    // last sequence applied. Replayed messages do not publish events. Call on a fresh engine before run().
+    public long recover(Path journalFile, Path snapshotFile) throws IOException {
+        ExecutionListener live = listener;
+        MarketDataPublisher liveMarketData = marketData;
+        listener = ExecutionListener.NO_OP;
+        marketData = null;
+        try {
+            snapshotSequence = Files.exists(snapshotFile) ? BookSnapshot.read(snapshotFile, books) : 0;
+            long lastSequence = Journal.replay(journalFile, snapshotSequence, this::replay);
+            if (risk != null) {
+                // Snapshot orders bypass the accounting, so recount open notional from what is resting now
+                risk.clearOpenNotional();
+                for (OrderBook book : books.values()) {
+                    book.forEachOrder(order -> openNotionalChanged(order, order.quantity));
+                }
+            }
+            return lastSequence;
+        } finally {
+            listener = live;
+            marketData = liveMarketData;
+        }
+    }
+
+    @Override
+    public void run() {
+        if (maxBatchSize > 0 && marketData != null) {
+            marketData.conflateUntilFlush(); // Published once per batch, from endOfBatch()
+        }
+        while (running) {
+            try {
+                if (marketData != null) {
+                    // Nothing else would retry updates parked while the publisher lagged until the next message
+                    marketData.flushWhile(idle);
+                }
+                if (maxBatchSize > 0) {
+                    endOfBatch(intake.drain(batchHandler, maxBatchSize)); // Waits for the first message
+                    continue;
+                }
+                OrderCommand command = intake.take(); // Waits for the next order per the intake's strategy
+                onMessage(command);
+                intake.release(command);
+                if (journal != null || marketData != null) {
+                    afterMessage(intake.depth() == 0);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    private void onMessage(OrderCommand command) {
+        if (!canRest(command)) {
+            listener.onRejected(command.id, RiskCheck.Reject.PRICE_RANGE);
+            return;
+        }
+        if (risk != null && !passesRiskChecks(command)) {
+            return; // Rejected before the journal, so replay never sees it and needs no risk state
+        }
+        if (journal != null) {
+            journal.append(command);
+        }
+        apply(command);
+    }
+
+    // Whether the book can hold the price of a NEW limit order or a REPLACE; other messages never add a price
+    private boolean canRest(OrderCommand command) {
+        OrderBook book = books.get(command.symbol);
+        Order.Side side = command.side;
+        if (command.kind == OrderCommand.Kind.REPLACE) {
+            Order existing = book.findOrder(command.id);
+            if (existing == null) {
+                return true; // apply() rejects the replace as usual
+            }
+            side = existing.side;
+        } else if (command.kind != OrderCommand.Kind.NEW || command.type != Order.Type.LIMIT) {
+            return true;
+        }
+        return book.canRest(side, command.price);
+    }
+
+    // A journal written before out-of-range prices were rejected may hold one: skip it as the live engine now would
+    private void replay(OrderCommand command) {
+        if (canRest(command)) {
+            apply(command);
+        }
+    }
+
+    private boolean passesRiskChecks(OrderCommand command) {
+        Order existing = (command.kind == OrderCommand.Kind.REPLACE) ? books.get(command.symbol).findOrder(command.id) : null;
+        RiskCheck.Reject reject = risk.check(command, existing, System.nanoTime());
+        if (reject != null) {
+            listener.onRejected(command.id, reject);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isIdle() {
+        return running && intake.depth() == 0 && !Thread.currentThread().isInterrupted();
+    }
+
+    private void endOfBatch(int batchSize) {
+        batchSizes.record(batchSize);
+        afterMessage(true); // A batch ends when the intake is drained or the batch is full: flush either way
+        listener.onEndOfBatch(batchSize);
+    }
+
+    private void afterMessage(boolean drained) {
+        if (journal != null) {
+            // Group commit: force once the burst has drained (append forces full groups itself)
+            if (drained) {
+                journal.commit();
+            }
+            if (journal.lastSequence() - snapshotSequence >= snapshotInterval) {
+                snapshot();
+            }
+        }
+        if (marketData != null && drained) {
+            marketData.flush(); // Retry anything conflated while the publisher was behind
+        }
+    }
+
+    // Applies one input message to the books; shared by the live loop and journal replay
+    void apply(OrderCommand command) {
+        OrderBook orderBook = books.get(command.symbol);
+        switch (command.kind) {
+            case NEW -> {
+                listener.onAccepted(command.id);
+                processOrder(orderBook, orderPool.claim(command.id, command.accountId, command.symbol, command.side, command.type, command.price, command.quantity));
+            }
+            case CANCEL -> cancelOrder(orderBook, command.id);
+            case REDUCE -> reduceOrder(orderBook, command.id, command.quantity);
+            case REPLACE -> replaceOrder(orderBook, command.id, command.price, command.quantity);
+        }
+        if (marketData != null) {
+            publishTopOfBook(command.symbol, orderBook);
+        }
+    }
+
+    private void levelChanged(OrderBook orderBook, String symbol, Order.Side side, long price) {
+        if (marketData != null) {
+            marketData.levelUpdated(symbol, side, price, orderBook.levelQuantity(side, price), orderBook.levelOrderCount(side, price));
+        }
+    }
+
+    private void publishTopOfBook(String symbol, OrderBook orderBook) {
+        Order bestBid = orderBook.bestOrder(Order.Side.BUY);
+        Order bestAsk = orderBook.bestOrder(Order.Side.SELL);
+        long bidPrice = bestBid == null ? 0 : bestBid.price;
+        long bidQuantity = bestBid == null ? 0 : orderBook.levelQuantity(Order.Side.BUY, bidPrice);
+        long askPrice = bestAsk == null ? 0 : bestAsk.price;
+        long askQuantity = bestAsk == null ? 0 : orderBook.levelQuantity(Order.Side.SELL, askPrice);
+        long[] last = lastTopOfBook.get(symbol);
+        if (last[0] != bidPrice || last[1] != bidQuantity || last[2] != askPrice || last[3] != askQuantity) {
+            last[0] = bidPrice;
+            last[1] = bidQuantity;
+            last[2] = askPrice;
+            last[3] = askQuantity;
+            marketData.topOfBook(symbol, bidPrice, bidQuantity, askPrice, askQuantity);
+        }
+    }
+
+    private void snapshot() {
+        journal.commit(); // The snapshot must never cover records that are not yet durable
+        try {
+            snapshotTo(snapshotFile, journal.lastSequence());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Engine thread only: writes the current books as covering the journal up to sequence
+    void snapshotTo(Path file, long sequence) throws IOException {
+        BookSnapshot.write(file, sequence, books);
+        snapshotSequence = sequence;
+    }
+
+    private void processOrder(OrderBook orderBook, Order newOrder) {
+        // Price-time priority: walk the opposite side best price first, oldest order first within a
+        // level, filling at the resting order's price until the incoming order no longer crosses.
+        Order.Side contra = (newOrder.side == Order.Side.BUY) ? Order.Side.SELL : Order.Side.BUY;
+        while (newOrder.quantity > 0) {
+            Order resting = orderBook.bestOrder(contra);
+            if (resting == null || !crosses(newOrder, resting.price)) {
+                break;
+            }
+            long fillQuantity = Math.min(newOrder.quantity, resting.quantity);
+            newOrder.quantity -= fillQuantity;
+            orderBook.fillBestOrder(contra, fillQuantity);
+            listener.onTrade(newOrder.id, resting.id, newOrder.side, resting.price, fillQuantity);
+            levelChanged(orderBook, newOrder.symbol, contra, resting.price);
+            if (risk != null) {
+                risk.traded(newOrder.symbol, resting.price);
+                openNotionalChanged(resting, -fillQuantity);
+            }
+            if (resting.quantity == 0) {
+                orderPool.release(resting); // Fully filled, so fillBestOrder has taken it off the book
+            }
+        }
+        // Only a limit order rests what is left; the unfilled remainder of a market order is cancelled.
+        if (newOrder.quantity > 0 && newOrder.type == Order.Type.LIMIT) {
+            orderBook.addOrder(newOrder);
+            levelChanged(orderBook, newOrder.symbol, newOrder.side, newOrder.price);
+            openNotionalChanged(newOrder, newOrder.quantity);
+            return;
+        }
+        if (newOrder.quantity > 0) {
+            listener.onCancelled(newOrder.id, newOrder.quantity, 0);
+        }
+        orderPool.release(newOrder);
+    }
+
+    private void cancelOrder(OrderBook orderBook, long orderId) {
+        Order order = orderBook.findOrder(orderId);
+        if (order == null) {
+            listener.onCancelRejected(orderId);
+            return;
+        }
+        orderBook.removeOrder(order);
+        listener.onCancelled(orderId, order.quantity, 0);
+        levelChanged(orderBook, order.symbol, order.side, order.price);
+        openNotionalChanged(order, -order.quantity);
+        orderPool.release(order);
+    }
+
+    private void reduceOrder(OrderBook orderBook, long orderId, long quantity) {
+        Order order = orderBook.findOrder(orderId);
+        if (order == null || quantity <= 0) {
+            listener.onCancelRejected(orderId);
+        } else if (quantity >= order.quantity) {
+            cancelOrder(orderBook, orderId);
+        } else {
+            orderBook.reduceOrder(order, quantity);
+            listener.onCancelled(orderId, quantity, order.quantity);
+            levelChanged(orderBook, order.symbol, order.side, order.price);
+            openNotionalChanged(order, -quantity);
+        }
+    }
+
+    private void replaceOrder(OrderBook orderBook, long orderId, long newPrice, long newQuantity) {
+        Order order = orderBook.findOrder(orderId);
+        if (order == null || newQuantity <= 0) {
+            listener.onCancelRejected(orderId);
+            return;
+        }
+        if (newPrice == order.price && newQuantity <= order.quantity) {
+            if (newQuantity < order.quantity) {
+                openNotionalChanged(order, newQuantity - order.quantity);
+                orderBook.reduceOrder(order, order.quantity - newQuantity);
+            }
+            listener.onReplaced(orderId, newPrice, newQuantity);
+            levelChanged(orderBook, order.symbol, order.side, order.price);
+            return;
+        }
+        orderBook.removeOrder(order);
+        listener.onReplaced(orderId, newPrice, newQuantity);
+        levelChanged(orderBook, order.symbol, order.side, order.price);
+        openNotionalChanged(order, -order.quantity);
+        // The same instance re-enters the book: it is off the book and no longer referenced anywhere else
+        processOrder(orderBook, order.set(orderId, order.accountId, order.symbol, order.side, Order.Type.LIMIT, newPrice, newQuantity));
+    }
+
+    // Keeps the RiskCheck's open notional in step with a resting order whose quantity changed by delta
+    private void openNotionalChanged(Order order, long quantityDelta) {
+        if (risk != null) {
+            risk.openNotionalChanged(order.accountId, order.price * quantityDelta);
+        }
+    }
+
+    private static boolean crosses(Order incoming, long restingPrice) {
+        if (incoming.type == Order.Type.MARKET) {
+            return true;
+        }
+        return (incoming.side == Order.Side.BUY) ? incoming.price >= restingPrice : incoming.price <= restingPrice;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    // Intake metrics, safe to read from any thread
+    public long submittedCount() {
+        return intake.claimedCount();
+    }
+
+    public long processedCount() {
+        return intake.releasedCount();
+    }
+
+    public long queueDepth() {
+        return intake.depth();
+    }
+
+    // Batch mode only; safe to read from any thread
+    public BatchSizeHistogram batchSizes() {
+        return batchSizes;
+    }
+
+    // Engine thread only
+    OrderPool orderPool() {
+        return orderPool;
+    }
+}
\ No newline at end of file
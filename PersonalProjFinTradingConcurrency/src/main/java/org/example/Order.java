@@ -0,0 +1,46 @@
+package org.example;
+
+/*
+* This class represnts a single trade order 
+* Instances are recycled by the engine's OrderPool, so every field is mutable and reassigned by set().
+*/
+public final class Order {
+    public enum Side { BUY, SELL }
+    public enum Type { MARKET, LIMIT }
+
+    long id;
+    long accountId;
+    String symbol;
+    Side side;
+    Type type;
+    long price; // Fixed-point: a count of the instrument's ticks, see Instrument
+    long quantity;
+
+    // Intrusive links, owned by the PriceLevel the order rests in; all null while it is not resting
+    Order prev;
+    Order next;
+    PriceLevel level;
+
+    public Order(long id, String symbol, Side side, Type type, long price, long quantity) {
+        set(id, 0, symbol, side, type, price, quantity);
+    }
+
+    Order() {
+    }
+
+    Order set(long id, long accountId, String symbol, Side side, Type type, long price, long quantity) {
+        this.id = id;
+        this.accountId = accountId;
+        this.symbol = symbol;
+        this.side = side;
+        this.type = type;
+        this.price = price;
+        this.quantity = quantity;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Order{id=%d, accountId=%d, symbol='%s', side=%s, type=%s, price=%d, quantity=%d}", id, accountId, symbol, side, type, price, quantity);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package org.example;
+
+import java.util.function.Consumer;
+
+/*
+* Resting orders for one symbol, kept in price-time priority per side. Only the MatchingEngine thread
+* touches a book, so implementations are not thread-safe. The implementation is chosen per symbol through
+* Instrument.BookType.
+*/
+public interface OrderBook {
+    void addOrder(Order order);
+
+    // Whether a limit order at price could rest on the given side. A book of bounded reach says no instead of
+    // failing in addOrder, and the engine rejects such orders before they are journalled.
+    default boolean canRest(Order.Side side, long price) {
+        return true;
+    }
+
+    // Oldest order at the best price on the given side (price-time priority), or null if that side is empty
+    Order bestOrder(Order.Side side);
+
+    // Fills quantity against the order returned by bestOrder(side). A fully filled order leaves the book,
+    // and a level left without orders is pruned so the next bestOrder call sees the next price.
+    void fillBestOrder(Order.Side side, long quantity);
+
+    // Resting order with the given id, or null if it is unknown, fully filled or already cancelled
+    Order findOrder(long orderId);
+
+    // Unlinks a resting order in O(1), pruning its level if that leaves it empty
+    void removeOrder(Order order);
+
+    // Takes quantity off a resting order in place, keeping its time priority; must be less than what rests
+    void reduceOrder(Order order, long quantity);
+
+    // Aggregate of the level at price on the given side, maintained incrementally; 0 if there is no such level
+    long levelQuantity(Order.Side side, long price);
+
+    int levelOrderCount(Order.Side side, long price);
+
+    // Fills the snapshot in place with the top snapshot.maxLevels levels of each side, in O(levels)
+    void depth(DepthSnapshot snapshot);
+
+    // Visits every resting order, sells then buys, each side best price first and FIFO within a level
+    void forEachOrder(Consumer<Order> action);
+
+    void printBook();
+}
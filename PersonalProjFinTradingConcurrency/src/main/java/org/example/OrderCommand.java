@@ -0,0 +1,42 @@
+package org.example;
+
+/*
+* A reusable intake slot. Producers claim a command from the OrderIntake, write the order fields into it
+* and publish it; the engine thread copies the fields out and releases the slot for reuse. With the ring
+* buffer intake the slots are allocated once up front, so a submission allocates nothing. Besides new
+* orders a command can cancel, reduce or cancel-replace a resting order, identified by id and symbol.
+*/
+public class OrderCommand {
+    public enum Kind { NEW, CANCEL, REDUCE, REPLACE }
+
+    Kind kind;
+    long id;
+    long accountId; // Owner of a NEW order, for the risk checks; 0 when the submitter gives none
+    String symbol;
+    Order.Side side;
+    Order.Type type;
+    long price; // Ticks; the new price for REPLACE
+    long quantity; // Order size; the amount to take off for REDUCE, the new size for REPLACE
+
+    long sequence; // Ring position of this slot for the current claim, owned by the intake
+
+    void set(Kind kind, long id, String symbol, Order.Side side, Order.Type type, long price, long quantity) {
+        set(kind, id, 0, symbol, side, type, price, quantity);
+    }
+
+    void set(Kind kind, long id, long accountId, String symbol, Order.Side side, Order.Type type, long price, long quantity) {
+        this.kind = kind;
+        this.id = id;
+        this.accountId = accountId;
+        this.symbol = symbol;
+        this.side = side;
+        this.type = type;
+        this.price = price;
+        this.quantity = quantity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OrderCommand{kind=%s, id=%d, accountId=%d, symbol='%s', side=%s, type=%s, price=%d, quantity=%d}", kind, id, accountId, symbol, side, type, price, quantity);
+    }
+}
@@ -0,0 +1,37 @@
+package org.example;
+
+import java.util.function.Consumer;
+
+/*
+* Hand-off between the producer threads and the single MatchingEngine thread. Producers call claim(),
+* fill in the returned slot and publish() it; the engine thread alone calls take() and, once it has
+* copied the fields out, release(). Alternatively the engine thread calls drain() to handle everything
+* already published in one pass. Implementations decide how slots are stored and how each side waits.
+*/
+public interface OrderIntake {
+    // Producer side: reserve a slot, waiting for free capacity if the intake is full
+    OrderCommand claim();
+
+    // Producer side: make a claimed slot visible to the engine thread
+    void publish(OrderCommand command);
+
+    // Consumer side: the next published command in claim order, waiting until one is available
+    OrderCommand take() throws InterruptedException;
+
+    // Consumer side: hand the slot returned by take() back for reuse
+    void release(OrderCommand command);
+
+    // Consumer side: waits for at least one command, then passes every command already published (up to
+    // maxBatch) to handler in claim order and releases them all; returns how many were handled
+    int drain(Consumer<OrderCommand> handler, int maxBatch) throws InterruptedException;
+
+    // Metrics, readable from any thread: slots handed to producers and slots released by the engine
+    long claimedCount();
+
+    long releasedCount();
+
+    // Orders submitted but not yet consumed by the engine
+    default long depth() {
+        return claimedCount() - releasedCount();
+    }
+}
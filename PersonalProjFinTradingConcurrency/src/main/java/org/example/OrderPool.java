@@ -0,0 +1,52 @@
+package org.example;
+
+/*
+* Free list of Order instances owned by one engine thread. An order is claimed when a NEW message is
+* applied and released once it has left the book for good (fully filled, cancelled, or the unfilled rest
+* of a market order), so a steady order flow reuses the same objects instead of feeding the young
+* generation. Free orders are chained through Order.next, so the pool itself never allocates; if it runs
+* dry it creates a new order, which joins the pool when released.
+*/
+public final class OrderPool {
+    private Order free; // Head of the free list, linked through Order.next
+    private int available;
+    private long createdCount;
+
+    public OrderPool(int preallocated) {
+        for (int i = 0; i < preallocated; i++) {
+            release(new Order());
+        }
+        createdCount = preallocated;
+    }
+
+    Order claim(long id, long accountId, String symbol, Order.Side side, Order.Type type, long price, long quantity) {
+        Order order = free;
+        if (order == null) {
+            order = new Order();
+            createdCount++;
+        } else {
+            free = order.next;
+            order.next = null;
+            available--;
+        }
+        return order.set(id, accountId, symbol, side, type, price, quantity);
+    }
+
+    // The order must no longer be referenced by a book; its fields are left stale until the next claim
+    void release(Order order) {
+        order.prev = null;
+        order.level = null;
+        order.next = free;
+        free = order;
+        available++;
+    }
+
+    public int available() {
+        return available;
+    }
+
+    // Orders ever created by the pool; flat in steady state once the book's working set is covered
+    public long createdCount() {
+        return createdCount;
+    }
+}
@@ -0,0 +1,291 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/*
+* Order book for instruments whose resting liquidity clusters tightly around the touch, as FX books do.
+* Each side is a dense array of PriceLevels indexed by tick offset from a sliding anchor price, so
+* finding a level is an array index rather than a tree walk, and orders queue intrusively inside their
+* level. The best level of each side is cached: bestOrder is O(1), and when the best level empties the
+* next one is found by scanning outward, which is a short walk in a dense book. When a price falls
+* outside the window the side is recentred around the occupied range, growing the window if needed up to
+* MAX_LEVELS; canRest is false for a price beyond that, and the engine rejects it.
+* Cancels find the order through a primitive id map and unlink it from its level in O(1).
+*/
+public class PriceLadderOrderBook implements OrderBook {
+    public static final int DEFAULT_LEVELS = 4096;
+    // Bound on the window so a stray price cannot exhaust the heap; canRest is false for an order this far away
+    static final int MAX_LEVELS = 1 << 22;
+
+    private final Ladder bids = new Ladder(true);
+    private final Ladder asks = new Ladder(false);
+    private final LongHashMap<Order> orderById = new LongHashMap<>(1024);
+
+    public PriceLadderOrderBook() {
+        this(DEFAULT_LEVELS);
+    }
+
+    public PriceLadderOrderBook(int levels) {
+        if (levels <= 0 || levels > MAX_LEVELS) {
+            throw new IllegalArgumentException("Levels must be in (0, " + MAX_LEVELS + "]: " + levels);
+        }
+        bids.init(levels);
+        asks.init(levels);
+    }
+
+    @Override
+    public void addOrder(Order order) {
+        ladderOf(order.side).add(order);
+        orderById.put(order.id, order);
+    }
+
+    // Conservative for a crossing order or a replace: the span counts every order resting now
+    @Override
+    public boolean canRest(Order.Side side, long price) {
+        return ladderOf(side).canAdd(price);
+    }
+
+    @Override
+    public Order bestOrder(Order.Side side) {
+        Ladder ladder = ladderOf(side);
+        return ladder.bestIndex < 0 ? null : ladder.levels[ladder.bestIndex].head;
+    }
+
+    @Override
+    public void fillBestOrder(Order.Side side, long quantity) {
+        Ladder ladder = ladderOf(side);
+        Order resting = ladder.levels[ladder.bestIndex].head;
+        resting.level.reduce(resting, quantity);
+        if (resting.quantity == 0) {
+            removeOrder(resting);
+        }
+    }
+
+    @Override
+    public Order findOrder(long orderId) {
+        return orderById.get(orderId);
+    }
+
+    @Override
+    public void removeOrder(Order order) {
+        orderById.remove(order.id);
+        ladderOf(order.side).remove(order);
+    }
+
+    @Override
+    public void reduceOrder(Order order, long quantity) {
+        order.level.reduce(order, quantity);
+    }
+
+    private Ladder ladderOf(Order.Side side) {
+        return side == Order.Side.BUY ? bids : asks;
+    }
+
+    @Override
+    public long levelQuantity(Order.Side side, long price) {
+        PriceLevel level = ladderOf(side).levelAt(price);
+        return level == null ? 0 : level.totalQuantity;
+    }
+
+    @Override
+    public int levelOrderCount(Order.Side side, long price) {
+        PriceLevel level = ladderOf(side).levelAt(price);
+        return level == null ? 0 : level.orderCount;
+    }
+
+    @Override
+    public void depth(DepthSnapshot snapshot) {
+        snapshot.clear();
+        bids.depth(Order.Side.BUY, snapshot);
+        asks.depth(Order.Side.SELL, snapshot);
+    }
+
+    @Override
+    public void forEachOrder(Consumer<Order> action) {
+        asks.forEachOrder(action);
+        bids.forEachOrder(action);
+    }
+
+    @Override
+    public void printBook() {
+        System.out.println("\n--- Order Book ---");
+        System.out.println("Sells:");
+        asks.print();
+        System.out.println("Buys:");
+        bids.print();
+        System.out.println("------------------\n");
+    }
+
+    // One side of the book. Bids are descending: their best level is the highest occupied index.
+    private static final class Ladder {
+        private final boolean descending;
+        private PriceLevel[] levels;
+        private PriceLevel[] spare; // Previous array of the same length, reused by the next recentre
+        private long anchor; // Price, in ticks, of levels[0]
+        private int bestIndex = -1; // -1 while the side is empty
+        private int occupied; // Number of non-empty levels
+
+        Ladder(boolean descending) {
+            this.descending = descending;
+        }
+
+        void init(int size) {
+            levels = new PriceLevel[size];
+            for (int i = 0; i < size; i++) {
+                levels[i] = new PriceLevel();
+            }
+        }
+
+        void add(Order order) {
+            long offset = order.price - anchor;
+            if (offset < 0 || offset >= levels.length) {
+                recentre(order.price);
+                offset = order.price - anchor;
+            }
+            int index = (int) offset;
+            PriceLevel level = levels[index];
+            if (level.isEmpty()) {
+                occupied++;
+                if (bestIndex < 0 || (descending ? index > bestIndex : index < bestIndex)) {
+                    bestIndex = index;
+                }
+            }
+            level.append(order);
+        }
+
+        boolean canAdd(long price) {
+            long offset = price - anchor;
+            if (occupied == 0 || (offset >= 0 && offset < levels.length)) {
+                return true;
+            }
+            return Math.max(price, highestOccupied()) - Math.min(price, lowestOccupied()) + 1 <= MAX_LEVELS;
+        }
+
+        PriceLevel levelAt(long price) {
+            long offset = price - anchor;
+            return (offset < 0 || offset >= levels.length) ? null : levels[(int) offset];
+        }
+
+        void remove(Order order) {
+            PriceLevel level = order.level;
+            level.remove(order);
+            if (level.isEmpty()) {
+                occupied--;
+                int index = (int) (order.price - anchor);
+                if (index == bestIndex) {
+                    bestIndex = (occupied == 0) ? -1 : nextOccupied(bestIndex);
+                }
+            }
+        }
+
+        // First non-empty level strictly worse than the given index; only called while one exists
+        private int nextOccupied(int from) {
+            int step = descending ? -1 : 1;
+            int index = from + step;
+            while (levels[index].isEmpty()) {
+                index += step;
+            }
+            return index;
+        }
+
+        // Prices of the outermost occupied levels; only called while one exists
+        private long lowestOccupied() {
+            int i = 0;
+            while (levels[i].isEmpty()) {
+                i++;
+            }
+            return anchor + i;
+        }
+
+        private long highestOccupied() {
+            int i = levels.length - 1;
+            while (levels[i].isEmpty()) {
+                i--;
+            }
+            return anchor + i;
+        }
+
+        // Slides the window so it covers both the occupied levels and the new price, centred on that range
+        private void recentre(long price) {
+            if (occupied == 0) {
+                anchor = price - levels.length / 2;
+                return;
+            }
+            long low = Math.min(price, lowestOccupied());
+            long high = Math.max(price, highestOccupied());
+            long span = high - low + 1;
+            if (span > MAX_LEVELS) { // The engine checks canAdd first, so only a direct caller gets here
+                throw new IllegalArgumentException("Price " + price + " is more than " + MAX_LEVELS + " ticks from the resting orders");
+            }
+            int size = levels.length;
+            while (size < span) {
+                size <<= 1;
+            }
+            long newAnchor = low - (size - span) / 2;
+
+            PriceLevel[] target = (spare != null && spare.length == size) ? spare : new PriceLevel[size];
+            Arrays.fill(target, null);
+            for (int i = 0; i < levels.length; i++) {
+                if (!levels[i].isEmpty()) {
+                    target[(int) (anchor + i - newAnchor)] = levels[i];
+                }
+            }
+            // Fill the remaining slots with the old empty levels, allocating only when the window grew
+            int free = 0;
+            for (int i = 0; i < size; i++) {
+                if (target[i] == null) {
+                    while (free < levels.length && !levels[free].isEmpty()) {
+                        free++;
+                    }
+                    target[i] = (free < levels.length) ? levels[free++] : new PriceLevel();
+                }
+            }
+            long bestPrice = anchor + bestIndex;
+            spare = (levels.length == size) ? levels : null;
+            levels = target;
+            anchor = newAnchor;
+            bestIndex = (int) (bestPrice - newAnchor);
+        }
+
+        // Walks outward from the best level, stopping after the last occupied one
+        void depth(Order.Side side, DepthSnapshot snapshot) {
+            int step = descending ? -1 : 1;
+            int remaining = occupied;
+            for (int i = bestIndex; remaining > 0; i += step) {
+                PriceLevel level = levels[i];
+                if (!level.isEmpty()) {
+                    if (!snapshot.add(side, anchor + i, level.totalQuantity, level.orderCount)) {
+                        return;
+                    }
+                    remaining--;
+                }
+            }
+        }
+
+        void forEachOrder(Consumer<Order> action) {
+            if (bestIndex < 0) {
+                return;
+            }
+            int step = descending ? -1 : 1;
+            for (int i = bestIndex; i >= 0 && i < levels.length; i += step) {
+                for (Order order = levels[i].head; order != null; order = order.next) {
+                    action.accept(order);
+                }
+            }
+        }
+
+        void print() {
+            if (bestIndex < 0) {
+                return;
+            }
+            int step = descending ? -1 : 1;
+            for (int i = bestIndex; i >= 0 && i < levels.length; i += step) {
+                PriceLevel level = levels[i];
+                if (!level.isEmpty()) {
+                    System.out.printf("  %s @ %d (%d)\n", level.orderCount, anchor + i, level.totalQuantity);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example;
+
+/*
+* One price level of an order book: an intrusive doubly-linked FIFO of the orders resting at that price,
+* linked through Order.prev/next. Each order also points back at its level, so a cancel unlinks it in
+* O(1) without searching, and queueing an order allocates nothing. The level keeps its order count and
+* total quantity up to date on every add, fill, reduce and cancel, so reading a level's size is O(1).
+*/
+public class PriceLevel {
+    Order head;
+    Order tail;
+    int orderCount;
+    long totalQuantity;
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    void append(Order order) {
+        order.level = this;
+        order.prev = tail;
+        order.next = null;
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.next = order;
+        }
+        tail = order;
+        orderCount++;
+        totalQuantity += order.quantity;
+    }
+
+    void remove(Order order) {
+        if (order.prev == null) {
+            head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+        order.prev = null;
+        order.next = null;
+        order.level = null;
+        orderCount--;
+        totalQuantity -= order.quantity;
+    }
+
+    // Takes quantity off a resting order in place (a fill or a reduce); the order keeps its position
+    void reduce(Order order, long quantity) {
+        order.quantity -= quantity;
+        totalQuantity -= quantity;
+    }
+}
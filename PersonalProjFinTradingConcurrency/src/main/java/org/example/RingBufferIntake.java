@@ -0,0 +1,104 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/*
+* Multi-producer/single-consumer ring buffer of preallocated OrderCommand slots. Producers claim a sequence
+* with a single getAndIncrement, write into the slot for that sequence and mark it published; the engine
+* thread consumes sequences strictly in order. No locks are taken and nothing is allocated per order.
+* The capacity must be a power of two so a sequence maps to its slot with a mask.
+*/
+public class RingBufferIntake implements OrderIntake {
+    private final OrderCommand[] slots;
+    private final int mask;
+    // Sequence last published into each slot; the consumer waits for it to equal the sequence it expects
+    private final AtomicLongArray published;
+    private final WaitStrategy waitStrategy;
+
+    private final AtomicLong claimSequence = new AtomicLong(); // Next sequence handed to a producer
+    private final AtomicLong releasedSequence = new AtomicLong(); // Sequences below this are free to reuse
+    private long nextSequence; // Next sequence the engine thread consumes (consumer-owned)
+
+    public RingBufferIntake(int capacity, WaitStrategy waitStrategy) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.slots = new OrderCommand[capacity];
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        this.waitStrategy = waitStrategy;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new OrderCommand();
+            published.set(i, -1);
+        }
+    }
+
+    @Override
+    public OrderCommand claim() {
+        long sequence = claimSequence.getAndIncrement();
+        // Wait until the consumer has released the slot's previous lap
+        long wrapPoint = sequence - slots.length;
+        int attempt = 0;
+        while (wrapPoint >= releasedSequence.get()) {
+            waitStrategy.idle(attempt++);
+        }
+        OrderCommand slot = slots[(int) sequence & mask];
+        slot.sequence = sequence;
+        return slot;
+    }
+
+    @Override
+    public void publish(OrderCommand command) {
+        published.lazySet((int) command.sequence & mask, command.sequence);
+    }
+
+    @Override
+    public OrderCommand take() throws InterruptedException {
+        int index = (int) nextSequence & mask;
+        int attempt = 0;
+        while (published.get(index) != nextSequence) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            waitStrategy.idle(attempt++);
+        }
+        return slots[index];
+    }
+
+    @Override
+    public void release(OrderCommand command) {
+        nextSequence++;
+        releasedSequence.lazySet(nextSequence);
+    }
+
+    // Finds the run of consecutive published sequences once, handles it, then frees all of its slots
+    // with a single ordered write, instead of a volatile read and write per message
+    @Override
+    public int drain(Consumer<OrderCommand> handler, int maxBatch) throws InterruptedException {
+        take();
+        long end = nextSequence + 1;
+        long limit = nextSequence + maxBatch;
+        while (end < limit && published.get((int) end & mask) == end) {
+            end++;
+        }
+        for (long sequence = nextSequence; sequence < end; sequence++) {
+            handler.accept(slots[(int) sequence & mask]);
+        }
+        int count = (int) (end - nextSequence);
+        nextSequence = end;
+        releasedSequence.lazySet(end);
+        return count;
+    }
+
+    @Override
+    public long claimedCount() {
+        return claimSequence.get();
+    }
+
+    @Override
+    public long releasedCount() {
+        return releasedSequence.get();
+    }
+}
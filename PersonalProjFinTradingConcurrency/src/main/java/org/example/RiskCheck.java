@@ -0,0 +1,171 @@
+package org.example;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+* Pre-trade risk stage run by the MatchingEngine on its own thread, before a message is journalled or
+* matched. Because the engine thread is the only writer, the per-account and per-symbol counters are plain
+* fields with no atomics or locks, and a check is a couple of map lookups and comparisons. Enforced:
+* order size (per account and per symbol), open notional per account, new orders per second per account
+* (a one-second fixed window), and a price band around the symbol's last trade. Open notional follows the
+* book: it rises when an order rests and falls as it is filled, reduced or cancelled. A market order is
+* valued at the last trade, or at a configured reference price before the first one; with neither it cannot
+* be valued and is rejected. Notional is compared by division, so a huge size cannot overflow and pass.
+* Behind a ShardedMatchingEngine every shard has its own RiskCheck, so account limits apply per shard.
+*/
+public class RiskCheck {
+    // PRICE_RANGE comes from the engine rather than a RiskCheck: the price is beyond what the book can hold
+    public enum Reject { ORDER_SIZE, OPEN_NOTIONAL, ORDER_RATE, PRICE_BAND, PRICE_RANGE }
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private final RiskLimits defaultLimits;
+    private final LongHashMap<AccountState> accounts = new LongHashMap<>(1024);
+    private final Map<String, SymbolState> symbols = new HashMap<>();
+
+    private static class AccountState {
+        final RiskLimits limits;
+        long openNotional;
+        long windowStart;
+        int ordersInWindow;
+
+        AccountState(RiskLimits limits) {
+            this.limits = limits;
+        }
+    }
+
+    private static class SymbolState {
+        long maxOrderQuantity = Long.MAX_VALUE;
+        long priceBandTicks = Long.MAX_VALUE;
+        long lastTradePrice; // 0 until the first trade or a reference price; the band is not checked before then
+    }
+
+    public RiskCheck(RiskLimits defaultLimits) {
+        this.defaultLimits = defaultLimits;
+    }
+
+    // Configuration, before the engine runs
+    public RiskCheck accountLimits(long accountId, RiskLimits limits) {
+        accounts.put(accountId, new AccountState(limits));
+        return this;
+    }
+
+    // Configuration, before the engine runs: limit prices further than priceBandTicks from the last trade are rejected
+    public RiskCheck symbolLimits(String symbol, long maxOrderQuantity, long priceBandTicks) {
+        SymbolState state = symbol(symbol);
+        state.maxOrderQuantity = maxOrderQuantity;
+        state.priceBandTicks = priceBandTicks;
+        return this;
+    }
+
+    // Configuration, before the engine runs: stands in for the last trade until the symbol first trades, to
+    // value market orders and centre the price band
+    public RiskCheck referencePrice(String symbol, long priceTicks) {
+        symbol(symbol).lastTradePrice = priceTicks;
+        return this;
+    }
+
+    // Returns why the message must be rejected, or null to let it through. existing is the resting order a
+    // REPLACE refers to; a REPLACE of an unknown order passes, and the engine rejects it as usual.
+    Reject check(OrderCommand command, Order existing, long nowNanos) {
+        if (command.kind == OrderCommand.Kind.NEW) {
+            return checkNew(command, nowNanos);
+        }
+        if (command.kind == OrderCommand.Kind.REPLACE && existing != null) {
+            return checkReplace(command, existing);
+        }
+        return null;
+    }
+
+    private Reject checkNew(OrderCommand command, long nowNanos) {
+        SymbolState symbol = symbol(command.symbol);
+        AccountState account = account(command.accountId);
+        if (command.quantity > symbol.maxOrderQuantity || command.quantity > account.limits.maxOrderQuantity) {
+            return Reject.ORDER_SIZE;
+        }
+        // A market order has no price of its own; the last trade stands in for its notional
+        long price = (command.type == Order.Type.LIMIT) ? command.price : symbol.lastTradePrice;
+        if (command.type == Order.Type.LIMIT && outsideBand(symbol, price)) {
+            return Reject.PRICE_BAND;
+        }
+        if (command.type == Order.Type.MARKET && price == 0) {
+            return Reject.OPEN_NOTIONAL; // No trade or reference price yet, so its notional is unknown
+        }
+        if (exceeds(price, command.quantity, account.limits.maxOpenNotional - account.openNotional)) {
+            return Reject.OPEN_NOTIONAL;
+        }
+        if (account.ordersInWindow == 0 || nowNanos - account.windowStart >= WINDOW_NANOS) {
+            account.windowStart = nowNanos;
+            account.ordersInWindow = 0;
+        }
+        if (account.ordersInWindow >= account.limits.maxOrdersPerSecond) {
+            return Reject.ORDER_RATE;
+        }
+        account.ordersInWindow++; // Only accepted orders count towards the rate
+        return null;
+    }
+
+    private Reject checkReplace(OrderCommand command, Order existing) {
+        SymbolState symbol = symbol(command.symbol);
+        AccountState account = account(existing.accountId);
+        if (command.quantity > symbol.maxOrderQuantity || command.quantity > account.limits.maxOrderQuantity) {
+            return Reject.ORDER_SIZE;
+        }
+        if (outsideBand(symbol, command.price)) {
+            return Reject.PRICE_BAND;
+        }
+        // The existing order's notional is freed by the replace; a replace that does not grow it always passes
+        long headroom = Math.max(0, account.limits.maxOpenNotional - account.openNotional);
+        if (exceeds(command.price, command.quantity, headroom + existing.price * existing.quantity)) {
+            return Reject.OPEN_NOTIONAL;
+        }
+        return null;
+    }
+
+    // Whether price * quantity > limit, without forming the product: a huge quantity would wrap it small
+    private static boolean exceeds(long price, long quantity, long limit) {
+        return price > 0 && quantity > limit / price;
+    }
+
+    private static boolean outsideBand(SymbolState symbol, long price) {
+        return symbol.lastTradePrice != 0 && Math.abs(price - symbol.lastTradePrice) > symbol.priceBandTicks;
+    }
+
+    // Engine thread: a resting order's notional changed by delta (positive when it rests, negative as it leaves)
+    void openNotionalChanged(long accountId, long delta) {
+        account(accountId).openNotional += delta;
+    }
+
+    void traded(String symbol, long price) {
+        symbol(symbol).lastTradePrice = price;
+    }
+
+    // Used after recovery, before open notional is rebuilt from the restored books
+    void clearOpenNotional() {
+        accounts.forEachValue(account -> account.openNotional = 0);
+    }
+
+    public long openNotional(long accountId) {
+        AccountState account = accounts.get(accountId);
+        return account == null ? 0 : account.openNotional;
+    }
+
+    private AccountState account(long accountId) {
+        AccountState account = accounts.get(accountId);
+        if (account == null) {
+            account = new AccountState(defaultLimits); // Once per account, on its first order
+            accounts.put(accountId, account);
+        }
+        return account;
+    }
+
+    private SymbolState symbol(String symbol) {
+        SymbolState state = symbols.get(symbol);
+        if (state == null) {
+            state = new SymbolState();
+            symbols.put(symbol, state);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,19 @@
+package org.example;
+
+/*
+* Per-account pre-trade limits enforced by RiskCheck. Notional is measured in price ticks times quantity,
+* the engine's own units, so checking it needs no decimal arithmetic.
+*/
+public class RiskLimits {
+    public static final RiskLimits NONE = new RiskLimits(Long.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE);
+
+    final long maxOrderQuantity;
+    final long maxOpenNotional; // Resting orders plus the incoming one
+    final int maxOrdersPerSecond;
+
+    public RiskLimits(long maxOrderQuantity, long maxOpenNotional, int maxOrdersPerSecond) {
+        this.maxOrderQuantity = maxOrderQuantity;
+        this.maxOpenNotional = maxOpenNotional;
+        this.maxOrdersPerSecond = maxOrdersPerSecond;
+    }
+}
@@ -0,0 +1,162 @@
+package org.example;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/*
+* Runs N independent single-threaded MatchingEngines and routes each order to the shard that owns its
+* symbol. Every symbol is owned by exactly one shard for the engine's lifetime, so a book is still only
+* ever touched by one thread and shards never coordinate: multi-symbol flow scales with the number of
+* cores. Symbols are dealt to shards round-robin in the order given, which balances them evenly.
+*/
+public class ShardedMatchingEngine {
+    private final MatchingEngine[] shards;
+    // Symbol -> owning shard; built in the constructor and read-only afterwards, so producers may share it
+    private final Map<String, MatchingEngine> routes = new HashMap<>();
+    private final Thread[] threads;
+    private CpuAffinity affinity = CpuAffinity.NONE;
+    private int[] cpus = new int[0];
+
+    // Each shard gets its own listener, since listeners are called on the shard's engine thread
+    public ShardedMatchingEngine(int shardCount, IntFunction<ExecutionListener> listenerForShard, Instrument... instruments) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        List<List<Instrument>> assigned = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            assigned.add(new ArrayList<>());
+        }
+        for (int i = 0; i < instruments.length; i++) {
+            assigned.get(i % shardCount).add(instruments[i]);
+        }
+        this.shards = new MatchingEngine[shardCount];
+        this.threads = new Thread[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new MatchingEngine(listenerForShard.apply(i), assigned.get(i).toArray(new Instrument[0]));
+            for (Instrument instrument : assigned.get(i)) {
+                routes.put(instrument.symbol, shards[i]);
+            }
+        }
+    }
+
+    // Optional: pin shard i to cpus[i] when it starts. Shards beyond cpus.length are left unpinned.
+    public void pinShards(CpuAffinity affinity, int... cpus) {
+        this.affinity = affinity;
+        this.cpus = cpus.clone();
+    }
+
+    // Runs every shard in batch mode, see MatchingEngine.enableBatching. Call before start().
+    public void enableBatching(int maxBatchSize) {
+        for (MatchingEngine shard : shards) {
+            shard.enableBatching(maxBatchSize);
+        }
+    }
+
+    // Gives every shard its own RiskCheck, so account limits are enforced per shard. Call before start().
+    public void enableRiskChecks(Supplier<RiskCheck> riskForShard) {
+        for (MatchingEngine shard : shards) {
+            shard.enableRiskChecks(riskForShard.get());
+        }
+    }
+
+    public void start() {
+        for (int i = 0; i < shards.length; i++) {
+            MatchingEngine shard = shards[i];
+            int cpu = (i < cpus.length) ? cpus[i] : -1;
+            CpuAffinity pin = affinity;
+            threads[i] = new Thread(() -> {
+                if (cpu >= 0) {
+                    pin.pinCurrentThread(cpu);
+                }
+                shard.run();
+            }, "matching-shard-" + i);
+            threads[i].start();
+        }
+    }
+
+    // Safe before start(), when there are no shard threads to wake or wait for
+    public void stop() throws InterruptedException {
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].stop();
+            if (threads[i] != null) {
+                threads[i].interrupt(); // Wakes a shard waiting on an empty intake
+            }
+        }
+        for (Thread thread : threads) {
+            if (thread != null) {
+                thread.join();
+            }
+        }
+    }
+
+    public MatchingEngine shardFor(String symbol) {
+        MatchingEngine shard = routes.get(symbol);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown symbol: " + symbol);
+        }
+        return shard;
+    }
+
+    public void submitOrder(long id, String symbol, Order.Side side, Order.Type type, BigDecimal price, long quantity) {
+        shardFor(symbol).submitOrder(id, symbol, side, type, price, quantity);
+    }
+
+    public void submitOrder(long id, String symbol, Order.Side side, Order.Type type, long priceTicks, long quantity) {
+        shardFor(symbol).submitOrder(id, symbol, side, type, priceTicks, quantity);
+    }
+
+    public void submitOrder(long id, long accountId, String symbol, Order.Side side, Order.Type type, long priceTicks, long quantity) {
+        shardFor(symbol).submitOrder(id, accountId, symbol, side, type, priceTicks, quantity);
+    }
+
+    public void cancelOrder(long id, String symbol) {
+        shardFor(symbol).cancelOrder(id, symbol);
+    }
+
+    public void reduceOrder(long id, String symbol, long quantity) {
+        shardFor(symbol).reduceOrder(id, symbol, quantity);
+    }
+
+    public void replaceOrder(long id, String symbol, long newPriceTicks, long newQuantity) {
+        shardFor(symbol).replaceOrder(id, symbol, newPriceTicks, newQuantity);
+    }
+
+    // Shard engines, e.g. to attach a MarketDataPublisher or journal before start()
+    public MatchingEngine shard(int index) {
+        return shards[index];
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    public QueueMetrics queueMetrics(int shard) {
+        MatchingEngine engine = shards[shard];
+        return new QueueMetrics(shard, engine.submittedCount(), engine.processedCount(), engine.queueDepth());
+    }
+
+    // Point-in-time view of one shard's intake
+    public static class QueueMetrics {
+        final int shard;
+        final long submitted;
+        final long processed;
+        final long depth;
+
+        QueueMetrics(int shard, long submitted, long processed, long depth) {
+            this.shard = shard;
+            this.submitted = submitted;
+            this.processed = processed;
+            this.depth = depth;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Shard{%d, submitted=%d, processed=%d, depth=%d}", shard, submitted, processed, depth);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.example;
+
+/*
+* Producer/client simulator (multi-threaded) - multiple clients (simulated by separate
+* threads) drive the sharded engine through the open-loop LoadGenerator, which reports latency
+* percentiles and writes its histograms under build/loadgen. Parameters are key=value arguments, e.g.
+*   gradle run --args="rate=500000 symbols=16 producers=4 cancelRatio=0.4 priceWalk=MEAN_REVERTING"
+*/
+public class TradingEngineSimulator {
+    public static void main(String[] args) throws Exception {
+        LoadGenerator generator = new LoadGenerator(LoadGenerator.Config.parse(args));
+        generator.run();
+        generator.printSummary(System.out);
+        System.out.println("Results written to " + generator.writeResults());
+    }
+}
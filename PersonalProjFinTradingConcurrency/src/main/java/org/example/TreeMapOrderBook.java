@@ -0,0 +1,117 @@
+package org.example;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/*
+* This is where pending orders are stored. For simplicity, it uses SortedMaps, which are efficient for 
+* managing prices. In a real-world engine, this class would not be thread-safe by design, as only the 
+* single MatchingEngine thread will access it. Prices are keyed in ticks (see Instrument). Each lookup walks
+* the tree and each new price allocates a tree entry; PriceLadderOrderBook avoids both.
+*/
+public class TreeMapOrderBook implements OrderBook {
+    // Buy book: highest price first
+    private final NavigableMap<Long, PriceLevel> buyBook = new TreeMap<>(Comparator.reverseOrder());
+    // Sell book: lowest price first
+    private final NavigableMap<Long, PriceLevel> sellBook = new TreeMap<>();
+    // Map to quickly look up orders by ID for cancellation; only the engine thread touches it
+    private final LongHashMap<Order> orderById = new LongHashMap<>(1024);
+
+    @Override
+    public void addOrder(Order order) {
+        orderById.put(order.id, order);
+        SortedMap<Long, PriceLevel> book = (order.side == Order.Side.BUY) ? buyBook : sellBook;
+        book.computeIfAbsent(order.price, k -> new PriceLevel()).append(order);
+    }
+
+    @Override
+    public Order bestOrder(Order.Side side) {
+        Map.Entry<Long, PriceLevel> best = sideOf(side).firstEntry();
+        return best == null ? null : best.getValue().head;
+    }
+
+    @Override
+    public void fillBestOrder(Order.Side side, long quantity) {
+        Order resting = sideOf(side).firstEntry().getValue().head;
+        resting.level.reduce(resting, quantity);
+        if (resting.quantity == 0) {
+            removeOrder(resting);
+        }
+    }
+
+    @Override
+    public Order findOrder(long orderId) {
+        return orderById.get(orderId);
+    }
+
+    @Override
+    public void removeOrder(Order order) {
+        orderById.remove(order.id);
+        PriceLevel level = order.level;
+        level.remove(order);
+        if (level.isEmpty()) {
+            sideOf(order.side).remove(order.price);
+        }
+    }
+
+    @Override
+    public void reduceOrder(Order order, long quantity) {
+        order.level.reduce(order, quantity);
+    }
+
+    private NavigableMap<Long, PriceLevel> sideOf(Order.Side side) {
+        return side == Order.Side.BUY ? buyBook : sellBook;
+    }
+
+    @Override
+    public long levelQuantity(Order.Side side, long price) {
+        PriceLevel level = sideOf(side).get(price);
+        return level == null ? 0 : level.totalQuantity;
+    }
+
+    @Override
+    public int levelOrderCount(Order.Side side, long price) {
+        PriceLevel level = sideOf(side).get(price);
+        return level == null ? 0 : level.orderCount;
+    }
+
+    // The entry iterator per side is the one allocation here; PriceLadderOrderBook.depth makes none
+    @Override
+    public void depth(DepthSnapshot snapshot) {
+        snapshot.clear();
+        for (Map.Entry<Long, PriceLevel> entry : buyBook.entrySet()) {
+            if (!snapshot.add(Order.Side.BUY, entry.getKey(), entry.getValue().totalQuantity, entry.getValue().orderCount)) {
+                break;
+            }
+        }
+        for (Map.Entry<Long, PriceLevel> entry : sellBook.entrySet()) {
+            if (!snapshot.add(Order.Side.SELL, entry.getKey(), entry.getValue().totalQuantity, entry.getValue().orderCount)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void forEachOrder(Consumer<Order> action) {
+        for (PriceLevel level : sellBook.values()) {
+            for (Order order = level.head; order != null; order = order.next) {
+                action.accept(order);
+            }
+        }
+        for (PriceLevel level : buyBook.values()) {
+            for (Order order = level.head; order != null; order = order.next) {
+                action.accept(order);
+            }
+        }
+    }
+
+    @Override
+    public void printBook() {
+        System.out.println("\n--- Order Book ---");
+        System.out.println("Sells:");
+        sellBook.forEach((price, level) -> System.out.printf("  %s @ %d (%d)\n", level.orderCount, price, level.totalQuantity));
+        System.out.println("Buys:");
+        buyBook.forEach((price, level) -> System.out.printf("  %s @ %d (%d)\n", level.orderCount, price, level.totalQuantity));
+        System.out.println("------------------\n");
+    }
+}
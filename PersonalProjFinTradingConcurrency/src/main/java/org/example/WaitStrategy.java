@@ -0,0 +1,41 @@
+package org.example;
+
+import java.util.concurrent.locks.LockSupport;
+
+/*
+* How a thread waits on the ring buffer: the engine thread for the next order, or a producer for free
+* capacity. Busy-spin gives the lowest hand-off latency but burns a core; yielding and parking trade
+* latency for CPU when the flow is bursty.
+*/
+public interface WaitStrategy {
+    int SPIN_TRIES = 100;
+    int YIELD_TRIES = 100;
+
+    // Spin on the CPU; suits an engine thread that owns an isolated core
+    WaitStrategy BUSY_SPIN = attempt -> Thread.onSpinWait();
+
+    // Spin briefly, then give the core away with Thread.yield() between checks
+    WaitStrategy YIELDING = attempt -> {
+        if (attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    };
+
+    // Spin, then yield, then sleep parkNanos between checks
+    static WaitStrategy parking(long parkNanos) {
+        return attempt -> {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(parkNanos);
+            }
+        };
+    }
+
+    // Called repeatedly while the awaited condition is false; attempt counts the calls made so far
+    void idle(int attempt);
+}
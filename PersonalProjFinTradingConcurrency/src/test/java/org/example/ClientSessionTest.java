@@ -0,0 +1,51 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ClientSessionTest {
+    private static final String SYMBOL = "GBPUSD";
+    private static final long MID = 127_000;
+
+    private final ClientGateway gateway = new ClientGateway(1, 4, 1_000,
+            new Instrument(SYMBOL, new BigDecimal("0.00001"), Instrument.BookType.PRICE_LADDER));
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        gateway.stop();
+    }
+
+    // A replace that fails the gateway checks, or names another session's order, is answered exactly once
+    @Test
+    void rejectedReplaceIsAnsweredOnce() throws InterruptedException {
+        gateway.start();
+        ClientSession owner = gateway.openSession();
+        ClientSession other = gateway.openSession();
+        long orderId = owner.submitOrder(SYMBOL, Order.Side.SELL, Order.Type.LIMIT, MID, 10);
+        assertEquals(ExecutionReport.Kind.ACCEPTED, next(owner).kind);
+
+        owner.replaceOrder(orderId, SYMBOL, MID + 1, 20); // A sell, which the gateway used to validate as a buy
+        ExecutionReport replaced = next(owner);
+        assertEquals(ExecutionReport.Kind.REPLACED, replaced.kind);
+        assertEquals(MID + 1, replaced.price);
+
+        other.replaceOrder(orderId, SYMBOL, MID, 10);
+        assertEquals(ExecutionReport.Kind.CANCEL_REJECTED, next(other).kind);
+        owner.replaceOrder(orderId, SYMBOL, MID, 0);
+        assertEquals(ExecutionReport.Kind.CANCEL_REJECTED, next(owner).kind);
+        owner.replaceOrder(orderId, "EURUSD", MID, 10);
+        assertEquals(ExecutionReport.Kind.CANCEL_REJECTED, next(owner).kind);
+
+        assertNull(other.poll(100, TimeUnit.MILLISECONDS));
+        assertNull(owner.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    private static ExecutionReport next(ClientSession session) throws InterruptedException {
+        return session.poll(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,74 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class MatchingEngineAllocationTest {
+    private static final String SYMBOL = "GBPUSD";
+    private static final long MID = 127_000;
+    private static final int LIVE_ORDERS = 256;
+
+    private final MatchingEngine engine = new MatchingEngine(new Instrument(SYMBOL, new BigDecimal("0.00001"), Instrument.BookType.PRICE_LADDER));
+    private final OrderCommand command = new OrderCommand();
+    private final Random random = new Random(7);
+    private final long[] slotIds = new long[LIVE_ORDERS];
+    private final Order.Side[] slotSides = new Order.Side[LIVE_ORDERS];
+    private long nextId;
+
+    @Test
+    void steadyStateMatchingDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int slot = 0; slot < LIVE_ORDERS; slot++) {
+            addPassive(slot);
+        }
+        runFlow(200_000); // Warm up: JIT compilation, and the pool and id map reaching their working size
+        long createdBefore = engine.orderPool().createdCount();
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        runFlow(200_000);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(0, allocated, "bytes allocated by 200k steady-state messages");
+        assertEquals(createdBefore, engine.orderPool().createdCount());
+    }
+
+    // Cancels, replaces, new passive orders and market orders that fill (and fully consume) resting ones.
+    // At most one resting order per slot, so the book's size and price range stay bounded.
+    private void runFlow(int steps) {
+        for (int i = 0; i < steps; i++) {
+            int slot = random.nextInt(LIVE_ORDERS);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    apply(OrderCommand.Kind.CANCEL, slotIds[slot], null, Order.Type.LIMIT, 0, 0); // Rejected if already filled
+                    addPassive(slot);
+                }
+                case 1 -> apply(OrderCommand.Kind.REPLACE, slotIds[slot], null, Order.Type.LIMIT, passivePrice(slotSides[slot]), 1 + random.nextInt(100));
+                default -> {
+                    Order.Side side = random.nextBoolean() ? Order.Side.BUY : Order.Side.SELL;
+                    apply(OrderCommand.Kind.NEW, ++nextId, side, Order.Type.MARKET, 0, 1 + random.nextInt(150));
+                }
+            }
+        }
+    }
+
+    private void addPassive(int slot) {
+        Order.Side side = random.nextBoolean() ? Order.Side.BUY : Order.Side.SELL;
+        slotIds[slot] = ++nextId;
+        slotSides[slot] = side;
+        apply(OrderCommand.Kind.NEW, nextId, side, Order.Type.LIMIT, passivePrice(side), 1 + random.nextInt(100));
+    }
+
+    private long passivePrice(Order.Side side) {
+        int ticksAway = 1 + random.nextInt(50);
+        return (side == Order.Side.BUY) ? MID - ticksAway : MID + ticksAway;
+    }
+
+    private void apply(OrderCommand.Kind kind, long id, Order.Side side, Order.Type type, long price, long quantity) {
+        command.set(kind, id, SYMBOL, side, type, price, quantity);
+        engine.apply(command);
+    }
+}
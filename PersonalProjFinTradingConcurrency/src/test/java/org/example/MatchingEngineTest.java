@@ -0,0 +1,553 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MatchingEngineTest {
+    private static final String SYMBOL = "GBPUSD";
+    private static final long MID = 127_000;
+    private static final Instrument LADDER = new Instrument(SYMBOL, new BigDecimal("0.00001"), Instrument.BookType.PRICE_LADDER);
+    private static final Instrument TREE_MAP = new Instrument(SYMBOL, new BigDecimal("0.00001"), Instrument.BookType.TREE_MAP);
+
+    @TempDir
+    Path dir;
+
+    private final List<String> events = new ArrayList<>();
+    private final OrderCommand command = new OrderCommand();
+
+    private final ExecutionListener recorder = recorder(events);
+
+    // Every event as one line, in the order the engine produced them
+    private static ExecutionListener recorder(List<String> events) {
+        return new ExecutionListener() {
+            @Override
+            public void onTrade(long takerOrderId, long makerOrderId, Order.Side takerSide, long price, long quantity) {
+                events.add("TRADE " + takerOrderId + " " + makerOrderId + " " + quantity + "@" + price);
+            }
+
+            @Override
+            public void onCancelled(long orderId, long cancelledQuantity, long remainingQuantity) {
+                events.add("CANCELLED " + orderId + " " + cancelledQuantity + " " + remainingQuantity);
+            }
+
+            @Override
+            public void onReplaced(long orderId, long newPrice, long newQuantity) {
+                events.add("REPLACED " + orderId + " " + newQuantity + "@" + newPrice);
+            }
+
+            @Override
+            public void onCancelRejected(long orderId) {
+                events.add("CANCEL_REJECTED " + orderId);
+            }
+
+            @Override
+            public void onRejected(long orderId, RiskCheck.Reject reason) {
+                events.add("REJECTED " + orderId + " " + reason);
+            }
+        };
+    }
+
+    // Price-time priority: a crossing order fills the best price first and the oldest order first within a
+    // level, always at the resting order's price; a limit order rests what is left, a market order cancels it
+    @Test
+    void crossingOrderFillsBestPriceOldestFirstAndRestsTheRemainder() {
+        for (Instrument instrument : new Instrument[]{LADDER, TREE_MAP}) {
+            events.clear();
+            MatchingEngine engine = new MatchingEngine(recorder, instrument);
+            apply(engine, OrderCommand.Kind.NEW, 1, Order.Side.SELL, Order.Type.LIMIT, MID + 2, 10);
+            apply(engine, OrderCommand.Kind.NEW, 2, Order.Side.SELL, Order.Type.LIMIT, MID + 1, 5);
+            apply(engine, OrderCommand.Kind.NEW, 3, Order.Side.SELL, Order.Type.LIMIT, MID + 1, 7);
+            apply(engine, OrderCommand.Kind.NEW, 4, Order.Side.BUY, Order.Type.LIMIT, MID - 1, 4);
+            assertEquals(List.of(), events, "nothing crosses yet");
+
+            apply(engine, OrderCommand.Kind.NEW, 5, Order.Side.BUY, Order.Type.LIMIT, MID + 2, 20);
+            assertEquals(List.of("TRADE 5 2 5@127001", "TRADE 5 3 7@127001", "TRADE 5 1 8@127002"), events);
+            assertEquals("DepthSnapshot{bids=[4@126999], asks=[2@127002]}", depth(engine), "order 1 partly filled");
+
+            events.clear();
+            apply(engine, OrderCommand.Kind.NEW, 6, Order.Side.BUY, Order.Type.LIMIT, MID + 3, 5);
+            assertEquals(List.of("TRADE 6 1 2@127002"), events);
+            assertEquals("DepthSnapshot{bids=[3@127003, 4@126999], asks=[]}", depth(engine), "order 6 rests its remainder");
+
+            events.clear();
+            apply(engine, OrderCommand.Kind.NEW, 7, Order.Side.SELL, Order.Type.MARKET, 0, 10);
+            assertEquals(List.of("TRADE 7 6 3@127003", "TRADE 7 4 4@126999", "CANCELLED 7 3 0"), events);
+            assertEquals("DepthSnapshot{bids=[], asks=[]}", depth(engine));
+        }
+    }
+
+    // A decimal price becomes ticks on submission; one between two ticks is refused on the caller's thread
+    @Test
+    void decimalPricesMatchAsTicks() throws Exception {
+        MatchingEngine engine = new MatchingEngine(recorder, LADDER);
+        Thread thread = new Thread(engine);
+        thread.start();
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.submitOrder(1, SYMBOL, Order.Side.SELL, Order.Type.LIMIT, new BigDecimal("1.270005"), 5));
+        engine.submitOrder(1, SYMBOL, Order.Side.SELL, Order.Type.LIMIT, new BigDecimal("1.27001"), 5);
+        engine.submitOrder(2, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID + 1, 5);
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (engine.processedCount() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        engine.stop();
+        thread.interrupt();
+        thread.join();
+        assertEquals(List.of("TRADE 2 1 5@127001"), events);
+    }
+
+    // A reduce, or a replace to a smaller size at the same price, keeps the order's place in its queue; a larger
+    // size or a new price sends it to the back, and a new price that crosses trades. Cancels, reduces and
+    // replaces of an order that is not resting are rejected.
+    @Test
+    void amendKeepsQueuePositionOnlyWhenTheOrderShrinksInPlace() {
+        for (Instrument instrument : new Instrument[]{LADDER, TREE_MAP}) {
+            events.clear();
+            MatchingEngine engine = new MatchingEngine(recorder, instrument);
+            for (long id = 1; id <= 3; id++) {
+                apply(engine, OrderCommand.Kind.NEW, id, Order.Side.SELL, Order.Type.LIMIT, MID, 10);
+            }
+            apply(engine, OrderCommand.Kind.REPLACE, 1, null, null, MID, 6); // Smaller: stays first
+            apply(engine, OrderCommand.Kind.REPLACE, 2, null, null, MID, 20); // Larger: to the back
+            apply(engine, OrderCommand.Kind.REDUCE, 3, null, null, 0, 4); // Stays ahead of order 2
+            apply(engine, OrderCommand.Kind.CANCEL, 4, null, null, 0, 0);
+            apply(engine, OrderCommand.Kind.REPLACE, 4, null, null, MID, 5);
+            apply(engine, OrderCommand.Kind.REDUCE, 4, null, null, 0, 5);
+            assertEquals(List.of("REPLACED 1 6@127000", "REPLACED 2 20@127000", "CANCELLED 3 4 6",
+                    "CANCEL_REJECTED 4", "CANCEL_REJECTED 4", "CANCEL_REJECTED 4"), events);
+
+            events.clear();
+            apply(engine, OrderCommand.Kind.NEW, 5, Order.Side.BUY, Order.Type.MARKET, 0, 30);
+            assertEquals(List.of("TRADE 5 1 6@127000", "TRADE 5 3 6@127000", "TRADE 5 2 18@127000"), events);
+
+            events.clear();
+            apply(engine, OrderCommand.Kind.CANCEL, 2, null, null, 0, 0);
+            apply(engine, OrderCommand.Kind.CANCEL, 2, null, null, 0, 0);
+            assertEquals(List.of("CANCELLED 2 2 0", "CANCEL_REJECTED 2"), events);
+
+            // The first of two bids moves down behind the second; an ask replaced onto the bids trades with it
+            events.clear();
+            apply(engine, OrderCommand.Kind.NEW, 6, Order.Side.BUY, Order.Type.LIMIT, MID - 1, 5);
+            apply(engine, OrderCommand.Kind.NEW, 7, Order.Side.BUY, Order.Type.LIMIT, MID - 2, 5);
+            apply(engine, OrderCommand.Kind.REPLACE, 6, null, null, MID - 2, 5);
+            apply(engine, OrderCommand.Kind.NEW, 8, Order.Side.SELL, Order.Type.LIMIT, MID, 8);
+            apply(engine, OrderCommand.Kind.REPLACE, 8, null, null, MID - 2, 8);
+            assertEquals(List.of("REPLACED 6 5@126998", "REPLACED 8 8@126998", "TRADE 8 7 5@126998", "TRADE 8 6 3@126998"), events);
+            assertEquals("DepthSnapshot{bids=[2@126998], asks=[]}", depth(engine));
+        }
+    }
+
+    // The ladder must behave exactly like the TreeMap book, including while its window recentres and grows:
+    // a random flow around a wandering mid, with jumps well past the initial window, goes through both
+    @Test
+    void ladderMatchesTreeMapOnRandomFlow() {
+        List<String> ladderEvents = new ArrayList<>();
+        List<String> treeEvents = new ArrayList<>();
+        MatchingEngine ladder = new MatchingEngine(recorder(ladderEvents), LADDER);
+        MatchingEngine tree = new MatchingEngine(recorder(treeEvents), TREE_MAP);
+        Random random = new Random(3);
+        long mid = MID;
+        for (int id = 1; id <= 100_000; id++) {
+            mid += (random.nextInt(100) == 0) ? random.nextInt(20_001) - 10_000 : random.nextInt(3) - 1;
+            mid = Math.max(MID - 30_000, Math.min(MID + 30_000, mid));
+            long price = mid + random.nextInt(41) - 20;
+            long quantity = 1 + random.nextInt(100);
+            long target = Math.max(1, id - random.nextInt(200)); // A recent order, often no longer resting
+            OrderCommand.Kind kind = OrderCommand.Kind.values()[random.nextInt(OrderCommand.Kind.values().length)];
+            Order.Side side = null;
+            Order.Type type = null;
+            if (kind == OrderCommand.Kind.NEW) {
+                target = id;
+                side = random.nextBoolean() ? Order.Side.BUY : Order.Side.SELL;
+                type = (random.nextInt(10) == 0) ? Order.Type.MARKET : Order.Type.LIMIT;
+                price = (type == Order.Type.MARKET) ? 0 : price;
+            }
+            apply(ladder, kind, target, side, type, price, quantity);
+            apply(tree, kind, target, side, type, price, quantity);
+            assertEquals(treeEvents, ladderEvents, "message " + id);
+            if (id % 100 == 0) {
+                assertEquals(levels(tree), levels(ladder), "message " + id);
+            }
+            ladderEvents.clear();
+            treeEvents.clear();
+        }
+    }
+
+    // A price further than the ladder can reach used to throw out of the book on the engine thread, after the
+    // message was journalled, so the engine died and recover() threw on the same record on every restart
+    @Test
+    void priceBeyondTheLadderIsRejectedBeforeTheJournal() throws Exception {
+        Path journalFile = dir.resolve("journal");
+        Path snapshotFile = dir.resolve("snapshot");
+        Journal journal = Journal.open(journalFile, 1, 1 << 20);
+        MatchingEngine engine = new MatchingEngine(recorder, LADDER);
+        engine.enableJournal(journal, snapshotFile, 1_000_000);
+        Thread thread = new Thread(engine);
+        thread.start();
+        engine.submitOrder(1, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, 10);
+        engine.submitOrder(2, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID - 1, 5);
+        engine.submitOrder(3, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID - PriceLadderOrderBook.MAX_LEVELS, 10);
+        engine.replaceOrder(1, SYMBOL, MID - PriceLadderOrderBook.MAX_LEVELS - 1, 10);
+        engine.submitOrder(4, SYMBOL, Order.Side.SELL, Order.Type.LIMIT, MID + 5, 7);
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (engine.processedCount() < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        engine.stop();
+        thread.interrupt();
+        thread.join();
+        journal.close();
+
+        assertEquals(List.of("REJECTED 3 PRICE_RANGE", "REJECTED 1 PRICE_RANGE"), events);
+        assertEquals(3, journal.lastSequence());
+        assertEquals("DepthSnapshot{bids=[10@127000, 5@126999], asks=[7@127005]}", depth(engine));
+        MatchingEngine recovered = new MatchingEngine(LADDER);
+        assertEquals(3, recovered.recover(journalFile, snapshotFile));
+        assertEquals(depth(engine), depth(recovered));
+    }
+
+    // The latest snapshot plus the journal records after it rebuild the books the live engine ended with,
+    // down to time priority within each level
+    @Test
+    void recoverRebuildsTheLiveBooksFromSnapshotAndJournalTail() throws Exception {
+        Path journalFile = dir.resolve("journal");
+        Path snapshotFile = dir.resolve("snapshot");
+        Journal journal = Journal.open(journalFile, 8, 1 << 20);
+        MatchingEngine engine = new MatchingEngine(recorder, LADDER);
+        engine.enableJournal(journal, snapshotFile, 64);
+        Thread thread = new Thread(engine);
+        thread.start();
+        Random random = new Random(11);
+        int messages = 1_000;
+        for (int id = 1; id <= messages; id++) {
+            Order.Side side = random.nextBoolean() ? Order.Side.BUY : Order.Side.SELL;
+            long price = MID + random.nextInt(21) - 10;
+            long target = 1 + random.nextInt(id); // Often filled or cancelled already, and then rejected
+            switch (random.nextInt(6)) {
+                case 0 -> engine.cancelOrder(target, SYMBOL);
+                case 1 -> engine.replaceOrder(target, SYMBOL, price, 1 + random.nextInt(50));
+                case 2 -> engine.reduceOrder(target, SYMBOL, 1 + random.nextInt(20));
+                case 3 -> engine.submitOrder(id, SYMBOL, side, Order.Type.MARKET, 0, 1 + random.nextInt(30));
+                default -> engine.submitOrder(id, SYMBOL, side, Order.Type.LIMIT, price, 1 + random.nextInt(50));
+            }
+        }
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (engine.processedCount() < messages && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        engine.stop();
+        thread.interrupt();
+        thread.join();
+        journal.close();
+        assertEquals(messages, journal.lastSequence());
+        long snapshotSequence = BookSnapshot.read(snapshotFile, Map.of(SYMBOL, new PriceLadderOrderBook()));
+        assertTrue(snapshotSequence > 0 && snapshotSequence < messages, "a snapshot and a journal tail after it");
+
+        MatchingEngine recovered = new MatchingEngine(recorder, LADDER);
+        assertEquals(messages, recovered.recover(journalFile, snapshotFile));
+        assertEquals(depth(engine), depth(recovered));
+        // Market orders through both sides fill the resting orders in priority order: the trades must match
+        events.clear();
+        sweep(engine);
+        List<String> liveTrades = new ArrayList<>(events);
+        events.clear();
+        sweep(recovered);
+        assertTrue(liveTrades.size() > 10);
+        assertEquals(liveTrades, events);
+    }
+
+    // Journals written before the check may already hold such a record; replay skips it like the live engine would
+    @Test
+    void recoverSkipsAnOutOfRangeRecordAlreadyJournalled() throws Exception {
+        Path journalFile = dir.resolve("journal");
+        try (Journal journal = Journal.open(journalFile, 1, 1 << 20)) {
+            command.set(OrderCommand.Kind.NEW, 1, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, 10);
+            journal.append(command);
+            command.set(OrderCommand.Kind.NEW, 2, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID - PriceLadderOrderBook.MAX_LEVELS, 10);
+            journal.append(command);
+            command.set(OrderCommand.Kind.NEW, 3, SYMBOL, Order.Side.SELL, Order.Type.LIMIT, MID + 5, 7);
+            journal.append(command);
+        }
+        MatchingEngine recovered = new MatchingEngine(LADDER);
+        assertEquals(3, recovered.recover(journalFile, dir.resolve("snapshot")));
+        assertEquals("DepthSnapshot{bids=[10@127000], asks=[7@127005]}", depth(recovered));
+    }
+
+    // Journals from before the file header have no account field. They replay, with every order on account 0,
+    // but appending would mix two layouts in one file, so opening one for writing fails.
+    @Test
+    void recoverReadsAnUnversionedJournalButDoesNotAppendToIt() throws Exception {
+        Path journalFile = dir.resolve("journal");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(journalFile))) {
+            unversionedRecord(out, 1, Order.Side.BUY, MID, 10);
+            unversionedRecord(out, 2, Order.Side.SELL, MID + 5, 7);
+            unversionedRecord(out, 3, Order.Side.SELL, MID, 4);
+        }
+        MatchingEngine recovered = new MatchingEngine(LADDER);
+        assertEquals(3, recovered.recover(journalFile, dir.resolve("snapshot")));
+        assertEquals("DepthSnapshot{bids=[6@127000], asks=[7@127005]}", depth(recovered));
+        assertThrows(IOException.class, () -> Journal.open(journalFile, 1, 1 << 20));
+    }
+
+    // A journal or snapshot in a layout this build does not know is refused rather than read as garbage
+    @Test
+    void recoverRefusesAnUnknownJournalOrSnapshotVersion() throws Exception {
+        Path journalFile = dir.resolve("journal");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(journalFile))) {
+            out.writeInt(0x4a524e4c); // "JRNL"
+            out.writeInt(3);
+        }
+        assertThrows(IOException.class, () -> new MatchingEngine(LADDER).recover(journalFile, dir.resolve("snapshot")));
+        assertThrows(IOException.class, () -> Journal.open(journalFile, 1, 1 << 20));
+
+        Path snapshotFile = dir.resolve("snapshot");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(snapshotFile))) {
+            out.writeInt(0x424f4f4b); // "BOOK", then the sequence straight away as before the version field
+            out.writeLong(5);
+            out.writeInt(0);
+        }
+        assertThrows(IOException.class, () -> new MatchingEngine(LADDER).recover(dir.resolve("none"), snapshotFile));
+    }
+
+    @Test
+    void ladderAcceptsAnyPriceWithinReachOfItsOrders() {
+        PriceLadderOrderBook book = new PriceLadderOrderBook(64);
+        assertTrue(book.canRest(Order.Side.SELL, Long.MAX_VALUE / 2)); // Nothing rests yet
+        book.addOrder(new Order(1, SYMBOL, Order.Side.SELL, Order.Type.LIMIT, MID, 10));
+        assertTrue(book.canRest(Order.Side.SELL, MID + 1));
+        assertTrue(book.canRest(Order.Side.SELL, MID - PriceLadderOrderBook.MAX_LEVELS + 1));
+        assertFalse(book.canRest(Order.Side.SELL, MID - PriceLadderOrderBook.MAX_LEVELS));
+        assertFalse(book.canRest(Order.Side.SELL, MID + PriceLadderOrderBook.MAX_LEVELS));
+        assertTrue(book.canRest(Order.Side.BUY, MID + PriceLadderOrderBook.MAX_LEVELS)); // Each side has its own window
+    }
+
+    // Size limits apply per account and per symbol, to new orders and to replaces, whichever is tighter
+    @Test
+    void oversizedOrdersAreRejectedAgainstTheAccountAndTheSymbolLimit() throws Exception {
+        MatchingEngine engine = new MatchingEngine(recorder, LADDER);
+        engine.enableRiskChecks(new RiskCheck(new RiskLimits(100, Long.MAX_VALUE, Integer.MAX_VALUE))
+                .accountLimits(7, new RiskLimits(50, Long.MAX_VALUE, Integer.MAX_VALUE))
+                .symbolLimits(SYMBOL, 80, Long.MAX_VALUE));
+        runThrough(engine, () -> {
+            engine.submitOrder(1, 0, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, 81); // Over the symbol's 80
+            engine.submitOrder(2, 0, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, 80);
+            engine.submitOrder(3, 7, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID - 1, 51); // Over account 7's 50
+            engine.submitOrder(4, 7, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID - 1, 50);
+            engine.replaceOrder(4, SYMBOL, MID - 1, 51);
+            engine.replaceOrder(2, SYMBOL, MID, 81);
+        });
+        assertEquals(List.of("REJECTED 1 ORDER_SIZE", "REJECTED 3 ORDER_SIZE", "REJECTED 4 ORDER_SIZE", "REJECTED 2 ORDER_SIZE"), events);
+        assertEquals("DepthSnapshot{bids=[80@127000, 50@126999], asks=[]}", depth(engine));
+    }
+
+    // Open notional counts resting orders plus the incoming one; a replace is charged only for what it adds.
+    // A size whose notional overflows a long used to wrap to a small number and pass.
+    @Test
+    void openNotionalLimitsNewOrdersAndReplacesThatGrowThem() throws Exception {
+        RiskCheck risk = new RiskCheck(new RiskLimits(Long.MAX_VALUE, 10 * MID, Integer.MAX_VALUE));
+        MatchingEngine engine = new MatchingEngine(recorder, LADDER);
+        engine.enableRiskChecks(risk);
+        long wraps = Long.divideUnsigned(-1L, MID) + 1; // MID * wraps overflows to less than MID
+        runThrough(engine, () -> {
+            engine.submitOrder(1, 0, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, 6);
+            engine.submitOrder(2, 0, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, 5); // 11 * MID in all
+            engine.submitOrder(3, 0, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, 4);
+            engine.replaceOrder(3, SYMBOL, MID, 5);
+            engine.replaceOrder(3, SYMBOL, MID - 1, 4); // Cheaper: passes however full the account is
+            engine.submitOrder(4, 0, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, wraps);
+            engine.replaceOrder(1, SYMBOL, MID, wraps);
+            engine.submitOrder(5, 0, SYMBOL, Order.Side.SELL, Order.Type.MARKET, 0, 1); // Nothing has traded: no price
+        });
+        assertEquals(List.of("REJECTED 2 OPEN_NOTIONAL", "REJECTED 3 OPEN_NOTIONAL", "REPLACED 3 4@126999",
+                "REJECTED 4 OPEN_NOTIONAL", "REJECTED 1 OPEN_NOTIONAL", "REJECTED 5 OPEN_NOTIONAL"), events);
+        assertEquals(6 * MID + 4 * (MID - 1), risk.openNotional(0));
+    }
+
+    // At most maxOrdersPerSecond new orders per account in each one-second window; the next window starts afresh
+    @Test
+    void orderRateResetsAtTheOneSecondWindowBoundary() {
+        RiskCheck risk = new RiskCheck(new RiskLimits(Long.MAX_VALUE, Long.MAX_VALUE, 2));
+        command.set(OrderCommand.Kind.NEW, 1, 9, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, 1);
+        assertEquals(null, risk.check(command, null, 5));
+        assertEquals(null, risk.check(command, null, 6));
+        assertEquals(RiskCheck.Reject.ORDER_RATE, risk.check(command, null, 7));
+        assertEquals(RiskCheck.Reject.ORDER_RATE, risk.check(command, null, 1_000_000_004L));
+        assertEquals(null, risk.check(command, null, 1_000_000_005L));
+        assertEquals(null, risk.check(command, null, 1_000_000_006L));
+        assertEquals(RiskCheck.Reject.ORDER_RATE, risk.check(command, null, 1_000_000_007L));
+        command.set(OrderCommand.Kind.NEW, 2, 10, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, 1);
+        assertEquals(null, risk.check(command, null, 1_000_000_007L)); // Another account has its own window
+    }
+
+    // The band is centred on the last trade, or on a reference price until the first one; market orders are
+    // valued at the same price
+    @Test
+    void priceBandFollowsTheLastTrade() throws Exception {
+        MatchingEngine engine = new MatchingEngine(recorder, LADDER);
+        engine.enableRiskChecks(new RiskCheck(RiskLimits.NONE).symbolLimits(SYMBOL, Long.MAX_VALUE, 10));
+        runThrough(engine, () -> {
+            engine.submitOrder(1, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID - 100, 1); // No trade yet: no band
+            engine.submitOrder(2, SYMBOL, Order.Side.SELL, Order.Type.LIMIT, MID, 1);
+            engine.submitOrder(3, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, 1);
+            engine.submitOrder(4, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID - 11, 1);
+            engine.submitOrder(5, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID - 10, 1);
+            engine.replaceOrder(5, SYMBOL, MID + 11, 1);
+            engine.submitOrder(6, SYMBOL, Order.Side.SELL, Order.Type.MARKET, 0, 1);
+        });
+        assertEquals(List.of("TRADE 3 2 1@127000", "REJECTED 4 PRICE_BAND", "REJECTED 5 PRICE_BAND", "TRADE 6 5 1@126990"), events);
+
+        RiskCheck risk = new RiskCheck(RiskLimits.NONE).symbolLimits(SYMBOL, Long.MAX_VALUE, 10).referencePrice(SYMBOL, MID);
+        command.set(OrderCommand.Kind.NEW, 7, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID + 11, 1);
+        assertEquals(RiskCheck.Reject.PRICE_BAND, risk.check(command, null, 0));
+        command.set(OrderCommand.Kind.NEW, 8, SYMBOL, Order.Side.BUY, Order.Type.MARKET, 0, 1);
+        assertEquals(null, risk.check(command, null, 0));
+    }
+
+    // Open notional is released as a resting order fills, is reduced, repriced or cancelled
+    @Test
+    void openNotionalFallsOnFillReduceAndCancel() {
+        RiskCheck risk = new RiskCheck(RiskLimits.NONE);
+        MatchingEngine engine = new MatchingEngine(recorder, LADDER);
+        engine.enableRiskChecks(risk);
+        command.set(OrderCommand.Kind.NEW, 1, 3, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID, 10);
+        engine.apply(command);
+        assertEquals(10 * MID, risk.openNotional(3));
+        apply(engine, OrderCommand.Kind.NEW, 2, Order.Side.SELL, Order.Type.LIMIT, MID, 4);
+        assertEquals(6 * MID, risk.openNotional(3));
+        apply(engine, OrderCommand.Kind.REDUCE, 1, null, null, 0, 2);
+        assertEquals(4 * MID, risk.openNotional(3));
+        apply(engine, OrderCommand.Kind.REPLACE, 1, null, null, MID - 1, 4);
+        assertEquals(4 * (MID - 1), risk.openNotional(3));
+        apply(engine, OrderCommand.Kind.CANCEL, 1, null, null, 0, 0);
+        assertEquals(0, risk.openNotional(3));
+        assertEquals(0, risk.openNotional(0)); // The seller's order never rested
+    }
+
+    // Updates parked while the publisher lagged used to wait for the next message; an idle engine now retries them
+    @Test
+    void updatesParkedWhileThePublisherLaggedGoOutWithoutAnotherMessage() throws Exception {
+        CountDownLatch consumerBlocked = new CountDownLatch(1);
+        Map<Long, Long> bidLevels = new ConcurrentHashMap<>();
+        MarketDataPublisher publisher = new MarketDataPublisher(2, WaitStrategy.parking(1_000), new MarketDataListener() {
+            @Override
+            public void onLevelUpdate(String symbol, Order.Side side, long price, long quantity, int orderCount) {
+                awaitQuietly(consumerBlocked);
+                bidLevels.put(price, quantity);
+            }
+
+            @Override
+            public void onTopOfBook(String symbol, long bidPrice, long bidQuantity, long askPrice, long askQuantity) {
+                awaitQuietly(consumerBlocked);
+            }
+        });
+        MatchingEngine engine = new MatchingEngine(LADDER);
+        engine.publishMarketData(publisher);
+        Thread publisherThread = new Thread(publisher);
+        Thread engineThread = new Thread(engine);
+        publisherThread.start();
+        engineThread.start();
+        for (int i = 0; i < 5; i++) {
+            engine.submitOrder(i + 1, SYMBOL, Order.Side.BUY, Order.Type.LIMIT, MID - i, 10 + i);
+        }
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (engine.processedCount() < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        consumerBlocked.countDown(); // The ring of two is full and the rest is parked; no message follows
+        while (bidLevels.size() < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        engine.stop();
+        engineThread.interrupt();
+        engineThread.join();
+        publisher.stop();
+        publisherThread.join();
+
+        assertEquals(Map.of(MID, 10L, MID - 1, 11L, MID - 2, 12L, MID - 3, 13L, MID - 4, 14L), bidLevels);
+        assertEquals(0, publisher.pendingCount());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Runs the engine on its own thread until it has processed everything submit sent, then stops it
+    private static void runThrough(MatchingEngine engine, Runnable submit) throws InterruptedException {
+        Thread thread = new Thread(engine);
+        thread.start();
+        submit.run();
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (engine.processedCount() < engine.submittedCount() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        engine.stop();
+        thread.interrupt();
+        thread.join();
+    }
+
+    // Straight onto the books on the calling thread, as the engine thread would
+    private void apply(MatchingEngine engine, OrderCommand.Kind kind, long id, Order.Side side, Order.Type type, long price, long quantity) {
+        command.set(kind, id, SYMBOL, side, type, price, quantity);
+        engine.apply(command);
+    }
+
+    // A NEW limit order in the journal layout without the file header or the account field
+    private static void unversionedRecord(DataOutputStream out, long id, Order.Side side, long price, long quantity) throws IOException {
+        out.writeInt(Long.BYTES + 3 + 3 * Long.BYTES + Short.BYTES + SYMBOL.length() * Character.BYTES);
+        out.writeLong(id); // Sequence
+        out.writeByte(OrderCommand.Kind.NEW.ordinal());
+        out.writeByte(side.ordinal());
+        out.writeByte(Order.Type.LIMIT.ordinal());
+        out.writeLong(id);
+        out.writeLong(price);
+        out.writeLong(quantity);
+        out.writeShort(SYMBOL.length());
+        out.writeChars(SYMBOL);
+    }
+
+    // Engine thread stopped: takes out every resting order with a market order per side
+    private void sweep(MatchingEngine engine) {
+        apply(engine, OrderCommand.Kind.NEW, -1, Order.Side.BUY, Order.Type.MARKET, 0, Long.MAX_VALUE / 2);
+        apply(engine, OrderCommand.Kind.NEW, -2, Order.Side.SELL, Order.Type.MARKET, 0, Long.MAX_VALUE / 2);
+    }
+
+    // Every level of both sides with its order count
+    private static String levels(MatchingEngine engine) {
+        DepthSnapshot snapshot = new DepthSnapshot(100_000);
+        engine.depth(SYMBOL, snapshot);
+        StringBuilder sb = new StringBuilder(snapshot.toString());
+        for (int i = 0; i < snapshot.bidLevels; i++) {
+            sb.append(' ').append(snapshot.bidOrderCounts[i]);
+        }
+        for (int i = 0; i < snapshot.askLevels; i++) {
+            sb.append(' ').append(snapshot.askOrderCounts[i]);
+        }
+        return sb.toString();
+    }
+
+    private static String depth(MatchingEngine engine) {
+        DepthSnapshot snapshot = new DepthSnapshot(10);
+        engine.depth(SYMBOL, snapshot);
+        return snapshot.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class RingBufferIntakeTest {
+    private static final int CAPACITY = 8; // Small, so producers wrap the ring many times and often find it full
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 1_000;
+
+    private static final Map<String, WaitStrategy> STRATEGIES = Map.of(
+            "BUSY_SPIN", WaitStrategy.BUSY_SPIN,
+            "YIELDING", WaitStrategy.YIELDING,
+            "parking", WaitStrategy.parking(10_000));
+
+    @Test
+    void capacityMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBufferIntake(0, WaitStrategy.BUSY_SPIN));
+        assertThrows(IllegalArgumentException.class, () -> new RingBufferIntake(12, WaitStrategy.BUSY_SPIN));
+    }
+
+    // Several producers racing on a small ring under every wait strategy: the consumer sees each sequence
+    // exactly once, in claim order, and each producer's messages in the order it published them. Half of
+    // the messages go through take()/release() and half through drain(), which may cross the wrap point.
+    @Test
+    void everySequenceIsConsumedOnceAndInProducerOrder() throws InterruptedException {
+        for (Map.Entry<String, WaitStrategy> strategy : STRATEGIES.entrySet()) {
+            RingBufferIntake intake = new RingBufferIntake(CAPACITY, strategy.getValue());
+            CountDownLatch go = new CountDownLatch(1);
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                long producer = p;
+                Thread thread = new Thread(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int n = 0; n < PER_PRODUCER; n++) {
+                        OrderCommand command = intake.claim();
+                        command.set(OrderCommand.Kind.NEW, producer, null, Order.Side.BUY, Order.Type.LIMIT, 0, n);
+                        intake.publish(command);
+                    }
+                }, "producer-" + p);
+                thread.setDaemon(true);
+                thread.start();
+                producers.add(thread);
+            }
+            go.countDown();
+
+            int total = PRODUCERS * PER_PRODUCER;
+            long[] nextFromProducer = new long[PRODUCERS];
+            long[] consumed = {0};
+            while (consumed[0] < total / 2) {
+                OrderCommand command = intake.take();
+                check(strategy.getKey(), command, consumed[0]++, nextFromProducer);
+                intake.release(command);
+            }
+            while (consumed[0] < total) {
+                intake.drain(command -> check(strategy.getKey(), command, consumed[0]++, nextFromProducer),
+                        (int) Math.min(CAPACITY, total - consumed[0]));
+            }
+            for (Thread producer : producers) {
+                producer.join(10_000);
+                assertFalse(producer.isAlive(), strategy.getKey() + " " + producer.getName() + " finished");
+            }
+            long[] expected = new long[PRODUCERS];
+            Arrays.fill(expected, PER_PRODUCER);
+            assertArrayEquals(expected, nextFromProducer, strategy.getKey());
+            assertEquals(total, intake.claimedCount());
+            assertEquals(total, intake.releasedCount());
+            assertEquals(0, intake.depth());
+        }
+    }
+
+    private static void check(String strategy, OrderCommand command, long expectedSequence, long[] nextFromProducer) {
+        assertEquals(expectedSequence, command.sequence, strategy + ": sequences are consumed once each, in order");
+        int producer = (int) command.id;
+        assertEquals(nextFromProducer[producer]++, command.quantity, strategy + ": producer " + producer + " in order");
+    }
+
+    // A full ring holds the next producer in claim() until the consumer releases the oldest slot, which
+    // that producer then reuses for its sequence one lap on
+    @Test
+    void claimOnAFullRingWaitsForTheConsumer() throws InterruptedException {
+        RingBufferIntake intake = new RingBufferIntake(4, WaitStrategy.parking(100_000));
+        for (int n = 0; n < 4; n++) {
+            OrderCommand command = intake.claim();
+            command.set(OrderCommand.Kind.NEW, n, null, Order.Side.BUY, Order.Type.LIMIT, 0, 1);
+            intake.publish(command);
+        }
+        OrderCommand[] claimed = new OrderCommand[1];
+        Thread producer = new Thread(() -> {
+            OrderCommand command = intake.claim();
+            command.set(OrderCommand.Kind.NEW, 4, null, Order.Side.BUY, Order.Type.LIMIT, 0, 1);
+            claimed[0] = command;
+            intake.publish(command);
+        });
+        producer.setDaemon(true);
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive(), "blocked while the ring is full");
+        assertEquals(5, intake.claimedCount());
+
+        OrderCommand oldest = intake.take();
+        assertEquals(0, oldest.id);
+        intake.release(oldest);
+        producer.join(10_000);
+        assertFalse(producer.isAlive(), "claims once the oldest slot is released");
+        assertSame(oldest, claimed[0], "the freed slot is reused");
+        assertEquals(4, claimed[0].sequence);
+
+        List<Long> ids = new ArrayList<>();
+        assertEquals(4, intake.drain(command -> ids.add(command.id), 16));
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids);
+        assertEquals(0, intake.depth());
+    }
+}
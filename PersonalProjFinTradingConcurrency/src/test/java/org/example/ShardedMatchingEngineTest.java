@@ -0,0 +1,94 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.Test;
+
+class ShardedMatchingEngineTest {
+    private static final BigDecimal TICK = new BigDecimal("0.00001");
+    private static final String[] SYMBOLS = {"EURUSD", "GBPUSD", "USDJPY", "AUDUSD", "USDCHF"};
+    private static final long MID = 100_000;
+
+    private static Instrument[] instruments() {
+        Instrument[] instruments = new Instrument[SYMBOLS.length];
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            instruments[i] = new Instrument(SYMBOLS[i], TICK, Instrument.BookType.PRICE_LADDER);
+        }
+        return instruments;
+    }
+
+    // Symbols are dealt to shards round-robin in the order given, and an unknown symbol is refused
+    @Test
+    void symbolsAreDealtToShardsRoundRobin() throws InterruptedException {
+        ShardedMatchingEngine engine = new ShardedMatchingEngine(2, shard -> (taker, maker, side, price, quantity) -> { }, instruments());
+        assertEquals(2, engine.shardCount());
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            assertSame(engine.shard(i % 2), engine.shardFor(SYMBOLS[i]), SYMBOLS[i]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> engine.shardFor("NZDUSD"));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedMatchingEngine(0, shard -> null, instruments()));
+        engine.stop(); // Never started: there are no shard threads to wake or join
+    }
+
+    // Every shard's listener is called only on that shard's own thread, and only for the symbols it owns;
+    // once every intake has drained, stop() ends all the shard threads
+    @Test
+    void eachShardMatchesItsSymbolsOnItsOwnThreadAndStopsAfterDraining() throws InterruptedException {
+        int shards = 3;
+        List<Map<Long, String>> tradeThreads = new ArrayList<>();
+        Set<Thread> shardThreads = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < shards; i++) {
+            tradeThreads.add(new ConcurrentHashMap<>());
+        }
+        ShardedMatchingEngine engine = new ShardedMatchingEngine(shards, shard -> (taker, maker, side, price, quantity) -> {
+            shardThreads.add(Thread.currentThread());
+            tradeThreads.get(shard).put(taker, Thread.currentThread().getName());
+        }, instruments());
+        engine.start();
+
+        int ordersPerSymbol = 200;
+        for (int n = 0; n < ordersPerSymbol; n++) {
+            for (int s = 0; s < SYMBOLS.length; s++) {
+                long id = 2L * (n * SYMBOLS.length + s);
+                engine.submitOrder(id + 1, SYMBOLS[s], Order.Side.SELL, Order.Type.LIMIT, MID, 1);
+                engine.submitOrder(id + 2, SYMBOLS[s], Order.Side.BUY, Order.Type.LIMIT, MID, 1); // Crosses the sell
+            }
+        }
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        for (int i = 0; i < shards; i++) {
+            while (engine.shard(i).processedCount() < engine.shard(i).submittedCount() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+        engine.stop();
+
+        for (int i = 0; i < shards; i++) {
+            ShardedMatchingEngine.QueueMetrics metrics = engine.queueMetrics(i);
+            assertEquals(metrics.submitted, metrics.processed, "shard " + i + " drained");
+            assertEquals(0, metrics.depth);
+            int symbolsOwned = (SYMBOLS.length - i + shards - 1) / shards;
+            assertEquals(2L * ordersPerSymbol * symbolsOwned, metrics.submitted);
+            assertEquals(ordersPerSymbol * symbolsOwned, tradeThreads.get(i).size(), "one trade per buy");
+            for (Map.Entry<Long, String> trade : tradeThreads.get(i).entrySet()) {
+                int symbol = (int) ((trade.getKey() - 1) / 2 % SYMBOLS.length);
+                assertEquals(i, symbol % shards, "order " + trade.getKey() + " traded on the shard owning its symbol");
+                assertEquals("matching-shard-" + i, trade.getValue());
+            }
+        }
+        assertEquals(shards, shardThreads.size());
+        for (Thread thread : shardThreads) {
+            assertFalse(thread.isAlive(), thread.getName() + " stopped");
+        }
+        assertTrue(tradeThreads.stream().allMatch(trades -> !trades.isEmpty()));
+    }
+}